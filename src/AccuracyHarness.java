@@ -0,0 +1,186 @@
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Headless accuracy and latency check of the tuner pipeline on synthetic plucks
+ * Every string is plucked at a few detunes through PluckSynthesizer and run hop by hop through
+ * TunerPipeline with each detector. Reports the cents error against the pitch actually
+ * synthesized, the octave-error rate and how many hops pass from the pluck until the right
+ * string locks. Deterministic for a given seed, e.g.
+ *   java AccuracyHarness --engines yin,mpm --noise 0.01 --hum 50
+ */
+public class AccuracyHarness {
+
+    private static final double OCTAVE_TOLERANCE_CENTS = 50;  // Within this of a whole octave off is an octave error
+    private static final int PRE_ROLL_HOPS = 10;              // Noise and hum only, before the pluck
+
+    // Synthesis and run settings
+    private double[] detunes = {-25, 0, 15};
+    private double noiseLevel = 0.005;
+    private double humFrequency = 60;
+    private double humLevel = 0.01;
+    private double inharmonicity = 0.2;
+    private double decaySeconds = 3.0;
+    private double seconds = 2.0;
+    private long seed = 1;
+
+    /**
+     * Totals for one detector over all strings and detunes
+     */
+    private static class Totals {
+        int runs;
+        int locked;
+        int wrongLocks;
+        long lockHops;
+        long detectedHops;
+        long octaveErrors;
+        long accurateHops;
+        double absCentsSum;
+        double maxAbsCents;
+    }
+
+    /**
+     * Run every string and detune through one detector, printing a row per run
+     */
+    Totals runEngine(int engine) {
+        float sampleRate = TunerPipeline.SAMPLE_RATE;
+        int hop = TunerPipeline.HOP_SIZE;
+        TunerPipeline pipeline = new TunerPipeline(sampleRate);
+        pipeline.setDetectorChoice(engine);
+        AudioFrame frame = new AudioFrame(hop);
+        Totals totals = new Totals();
+        int runHops = (int) Math.ceil(seconds * sampleRate / hop);
+
+        for (int string = 0; string < TunerPipeline.STRING_FREQUENCIES.length; string++) {
+            for (double detune : detunes) {
+                PluckSynthesizer synthesizer = new PluckSynthesizer(sampleRate, TunerPipeline.MIN_FREQUENCY,
+                        seed + string * 31L + Double.doubleToLongBits(detune));
+                synthesizer.setDetuneCents(detune);
+                synthesizer.setInharmonicity(inharmonicity);
+                synthesizer.setDecaySeconds(decaySeconds);
+                synthesizer.setNoiseLevel(noiseLevel);
+                synthesizer.setHum(humFrequency, humLevel);
+                pipeline.clear();
+
+                for (int i = 0; i < PRE_ROLL_HOPS; i++) {
+                    synthesizer.render(frame, hop);
+                    pipeline.process(frame, TunerMode.GUITAR);
+                }
+
+                synthesizer.pluck(TunerPipeline.STRING_FREQUENCIES[string]);
+                double actual = synthesizer.getFrequency();
+                int lockHop = -1;
+                boolean wrongLock = false;
+                long detected = 0;
+                long octaves = 0;
+                long accurate = 0;
+                double absCents = 0;
+                double maxAbsCents = 0;
+
+                for (int i = 0; i < runHops; i++) {
+                    synthesizer.render(frame, hop);
+                    DetectionSnapshot snapshot = pipeline.process(frame, TunerMode.GUITAR);
+
+                    if (snapshot.hasTarget()) {
+                        if (snapshot.targetIndex() == string) {
+                            if (lockHop < 0) {
+                                lockHop = i + 1;
+                            }
+                        } else {
+                            wrongLock = true;
+                        }
+                    }
+                    if (snapshot.frequency() > 0) {
+                        detected++;
+                        double error = 1200 * Math.log(snapshot.frequency() / actual) / Math.log(2);
+                        long octavesOff = Math.round(error / 1200);
+                        if (octavesOff != 0 && Math.abs(error - 1200 * octavesOff) < OCTAVE_TOLERANCE_CENTS) {
+                            octaves++;
+                        } else if (octavesOff == 0) {
+                            accurate++;
+                            absCents += Math.abs(error);
+                            maxAbsCents = Math.max(maxAbsCents, Math.abs(error));
+                        }
+                    }
+                }
+
+                System.out.printf(Locale.ROOT, "%-10s %-13s %+6.0f %9s %9s %9.2f %9.2f %8.1f%% %6s%n",
+                        TunerPipeline.ENGINE_KEYS[engine], TunerPipeline.STRING_FULL_NAMES[string], detune,
+                        lockHop > 0 ? String.valueOf(lockHop) : "-",
+                        lockHop > 0 ? String.format(Locale.ROOT, "%.0f", lockHop * hop * 1000.0 / sampleRate) : "-",
+                        accurate > 0 ? absCents / accurate : Double.NaN, maxAbsCents,
+                        detected > 0 ? 100.0 * octaves / detected : 0.0, wrongLock ? "yes" : "no");
+
+                totals.runs++;
+                if (lockHop > 0) {
+                    totals.locked++;
+                    totals.lockHops += lockHop;
+                }
+                if (wrongLock) {
+                    totals.wrongLocks++;
+                }
+                totals.detectedHops += detected;
+                totals.octaveErrors += octaves;
+                totals.accurateHops += accurate;
+                totals.absCentsSum += absCents;
+                totals.maxAbsCents = Math.max(totals.maxAbsCents, maxAbsCents);
+            }
+        }
+        return totals;
+    }
+
+    /**
+     * Command line entry point
+     */
+    public static void main(String[] args) {
+        AccuracyHarness harness = new AccuracyHarness();
+        List<String> engines = List.of(TunerPipeline.ENGINE_KEYS);
+
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--engines" -> engines = List.of(value.toLowerCase(Locale.ROOT).split(","));
+                case "--detunes" -> {
+                    String[] parts = value.split(",");
+                    harness.detunes = new double[parts.length];
+                    for (int j = 0; j < parts.length; j++) {
+                        harness.detunes[j] = Double.parseDouble(parts[j].trim());
+                    }
+                }
+                case "--noise" -> harness.noiseLevel = Double.parseDouble(value);
+                case "--hum" -> harness.humFrequency = Double.parseDouble(value);
+                case "--hum-level" -> harness.humLevel = Double.parseDouble(value);
+                case "--inharmonicity" -> harness.inharmonicity = Double.parseDouble(value);
+                case "--decay" -> harness.decaySeconds = Double.parseDouble(value);
+                case "--seconds" -> harness.seconds = Double.parseDouble(value);
+                case "--seed" -> harness.seed = Long.parseLong(value);
+                default -> {
+                    System.err.println("Usage: java AccuracyHarness [--engines direct,fft,decimated,yin,mpm]"
+                            + " [--detunes -25,0,15] [--noise <level>] [--hum <Hz>] [--hum-level <level>]"
+                            + " [--inharmonicity <0..0.9>] [--decay <seconds>] [--seconds <per pluck>] [--seed <n>]");
+                    System.exit(2);
+                }
+            }
+        }
+
+        System.out.printf(Locale.ROOT, "%-10s %-13s %6s %9s %9s %9s %9s %9s %6s%n",
+                "engine", "string", "detune", "lock hops", "lock ms", "mean|c|", "max|c|", "octave", "wrong");
+        StringBuilder summary = new StringBuilder();
+        for (int engine = 0; engine < TunerPipeline.ENGINE_KEYS.length; engine++) {
+            if (!engines.contains(TunerPipeline.ENGINE_KEYS[engine])) {
+                continue;
+            }
+            Totals totals = harness.runEngine(engine);
+            summary.append(String.format(Locale.ROOT,
+                    "%-10s locked %d/%d, mean lock %.1f hops, mean |cents| %.2f, max |cents| %.2f, octave errors %.2f%%, wrong locks %d%n",
+                    TunerPipeline.ENGINE_KEYS[engine], totals.locked, totals.runs,
+                    totals.locked > 0 ? (double) totals.lockHops / totals.locked : Double.NaN,
+                    totals.accurateHops > 0 ? totals.absCentsSum / totals.accurateHops : Double.NaN,
+                    totals.maxAbsCents,
+                    totals.detectedHops > 0 ? 100.0 * totals.octaveErrors / totals.detectedHops : 0.0,
+                    totals.wrongLocks));
+        }
+        System.out.println();
+        System.out.print(summary);
+    }
+}
@@ -0,0 +1,111 @@
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Guards the zero-allocation hot path: runs TunerPipeline.process warm for every detector in
+ * guitar and chromatic mode and fails when a hop allocates more than the one DetectionSnapshot
+ * it returns. Exits with 1 on a regression, e.g.
+ *   java AllocationCheck --engines decimated --hops 2000
+ */
+public class AllocationCheck {
+
+    private static final int WARMUP_HOPS = 20_000;            // Enough for the JIT to compile process
+
+    // Keeps snapshots alive so the JIT can't drop the allocation being measured
+    private static volatile Object sink;
+
+    private final com.sun.management.ThreadMXBean threads;
+    private final long threadId = Thread.currentThread().getId();
+
+    AllocationCheck(com.sun.management.ThreadMXBean threads) {
+        this.threads = threads;
+    }
+
+    /**
+     * Bytes one DetectionSnapshot takes on this JVM - the allowance per hop
+     */
+    long snapshotBytes() {
+        int count = 100_000;
+        for (int i = 0; i < count; i++) {
+            sink = new DetectionSnapshot(TunerMode.GUITAR, i, i, 0, 0, 0, 0, 0, i, null);
+        }
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < count; i++) {
+            sink = new DetectionSnapshot(TunerMode.GUITAR, i, i, 0, 0, 0, 0, 0, i, null);
+        }
+        return Math.round((double) (threads.getThreadAllocatedBytes(threadId) - before) / count);
+    }
+
+    /**
+     * Average bytes allocated per hop once warm, over a loop of plucks and silence
+     */
+    double bytesPerHop(int engine, TunerMode mode, int hops) {
+        int hop = TunerPipeline.HOP_SIZE;
+        double[] pluck = TunerBenchmark.signal("noisy-pluck", (int) TunerPipeline.SAMPLE_RATE);
+        double[] silence = TunerBenchmark.signal("silence", (int) TunerPipeline.SAMPLE_RATE);
+        int hopsPerSignal = pluck.length / hop;
+        TunerPipeline pipeline = new TunerPipeline(TunerPipeline.SAMPLE_RATE);
+        pipeline.setDetectorChoice(engine);
+        AudioFrame frame = new AudioFrame(hop);
+
+        long before = 0;
+        for (int i = 0; i < WARMUP_HOPS + hops; i++) {
+            if (i == WARMUP_HOPS) {
+                before = threads.getThreadAllocatedBytes(threadId);
+            }
+            int index = i % (2 * hopsPerSignal);
+            double[] signal = index < hopsPerSignal ? pluck : silence;
+            System.arraycopy(signal, (index % hopsPerSignal) * hop, frame.getSamples(), 0, hop);
+            frame.measure(hop);
+            sink = pipeline.process(frame, mode);
+        }
+        return (double) (threads.getThreadAllocatedBytes(threadId) - before) / hops;
+    }
+
+    /**
+     * Command line entry point
+     */
+    public static void main(String[] args) {
+        List<String> engines = List.of(TunerPipeline.ENGINE_KEYS);
+        int hops = 5_000;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--engines" -> engines = List.of(args[i + 1].toLowerCase(Locale.ROOT).split(","));
+                case "--hops" -> hops = Math.max(1, Integer.parseInt(args[i + 1]));
+                default -> {
+                    System.err.println("Usage: java AllocationCheck [--engines direct,fft,decimated,yin,mpm] [--hops <n>]");
+                    System.exit(2);
+                }
+            }
+        }
+
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean)
+                || !((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported()) {
+            System.err.println("This JVM can't measure thread allocation");
+            System.exit(2);
+        }
+        AllocationCheck check = new AllocationCheck((com.sun.management.ThreadMXBean) bean);
+
+        long allowance = check.snapshotBytes();
+        System.out.printf(Locale.ROOT, "Allowance: %d bytes per hop (one DetectionSnapshot)%n", allowance);
+        int failures = 0;
+        for (int engine = 0; engine < TunerPipeline.ENGINE_KEYS.length; engine++) {
+            if (!engines.contains(TunerPipeline.ENGINE_KEYS[engine])) {
+                continue;
+            }
+            for (TunerMode mode : new TunerMode[] {TunerMode.GUITAR, TunerMode.CHROMATIC}) {
+                double bytes = check.bytesPerHop(engine, mode, hops);
+                // Half a byte of slack for stray JVM-internal allocation over the run
+                boolean ok = bytes <= allowance + 0.5;
+                System.out.printf(Locale.ROOT, "%-10s %-10s %8.1f B/hop  %s%n", TunerPipeline.ENGINE_KEYS[engine],
+                        mode.name().toLowerCase(Locale.ROOT), bytes, ok ? "ok" : "FAIL");
+                if (!ok) {
+                    failures++;
+                }
+            }
+        }
+        System.exit(failures > 0 ? 1 : 0);
+    }
+}
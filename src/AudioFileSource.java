@@ -0,0 +1,116 @@
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.UnsupportedAudioFileException;
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Audio from a file Java Sound can read (WAV, AIFF, AU), converted to 16-bit PCM when needed
+ * Each start plays the file from the beginning; in real-time mode it is delivered no faster
+ * than it would be captured live.
+ */
+public class AudioFileSource implements AudioSource {
+
+    private final File file;
+    private final AudioFormat format;
+    private final RealTimePacer pacer;
+    private volatile AudioInputStream stream;    // Closed from another thread while read may be running
+
+    /**
+     * Open a file and check it can be decoded
+     *
+     * @throws UnsupportedAudioFileException if Java Sound can't read or convert it
+     */
+    public AudioFileSource(File file, boolean realTime) throws IOException, UnsupportedAudioFileException {
+        this.file = file;
+        try (AudioInputStream probe = openPcm(file)) {
+            this.format = probe.getFormat();
+        }
+        this.pacer = realTime ? new RealTimePacer(format) : null;
+    }
+
+    /**
+     * Open a file as 8 or 16 bit integer PCM, converting other encodings when Java Sound can
+     */
+    static AudioInputStream openPcm(File file) throws IOException, UnsupportedAudioFileException {
+        AudioInputStream stream = AudioSystem.getAudioInputStream(file);
+        AudioFormat format = stream.getFormat();
+        AudioFormat.Encoding encoding = format.getEncoding();
+        boolean integerPcm = AudioFormat.Encoding.PCM_SIGNED.equals(encoding)
+                || AudioFormat.Encoding.PCM_UNSIGNED.equals(encoding);
+        if (integerPcm && (format.getSampleSizeInBits() == 8 || format.getSampleSizeInBits() == 16)) {
+            return stream;
+        }
+
+        AudioFormat target = new AudioFormat(format.getSampleRate(), 16, format.getChannels(), true, false);
+        try {
+            return AudioSystem.getAudioInputStream(target, stream);
+        } catch (IllegalArgumentException e) {
+            stream.close();
+            throw new UnsupportedAudioFileException("Cannot convert " + format + " to 16-bit PCM");
+        }
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    @Override
+    public AudioFormat getFormat() {
+        return format;
+    }
+
+    @Override
+    public void start() throws IOException {
+        close();
+        try {
+            stream = openPcm(file);
+        } catch (UnsupportedAudioFileException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+        if (pacer != null) {
+            pacer.restart();
+        }
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        AudioInputStream current = stream;
+        if (current == null) {
+            return -1;
+        }
+        int total = 0;
+        try {
+            while (total < length) {
+                int read = current.read(buffer, offset + total, length - total);
+                if (read < 0) {
+                    break;
+                }
+                total += read;
+            }
+        } catch (IOException e) {
+            // Closed under us by close() - that's the end of the source, not an error
+            if (stream != current) {
+                return -1;
+            }
+            throw e;
+        }
+        if (total == 0) {
+            return -1;
+        }
+        if (pacer != null) {
+            pacer.pace(total);
+        }
+        return total;
+    }
+
+    @Override
+    public void close() throws IOException {
+        AudioInputStream current = stream;
+        stream = null;
+        if (current != null) {
+            current.close();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+/**
+ * One decoded frame of audio plus its level statistics
+ * Owned by the analysis thread and refilled in place for every frame
+ */
+public class AudioFrame {
+
+    private final double[] samples;
+    private int length;
+
+    // Level statistics on the -1..1 scale
+    private double meanAbs;
+    private double rms;
+    private double peak;
+
+    /**
+     * Create a frame that can hold up to capacity samples
+     */
+    public AudioFrame(int capacity) {
+        samples = new double[capacity];
+    }
+
+    /**
+     * Sample storage (range -1..1); only the first getLength() entries are valid
+     */
+    public double[] getSamples() {
+        return samples;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    public int getCapacity() {
+        return samples.length;
+    }
+
+    /**
+     * Average absolute amplitude - what the volume meter shows
+     */
+    public double getMeanAbs() {
+        return meanAbs;
+    }
+
+    public double getRms() {
+        return rms;
+    }
+
+    public double getPeak() {
+        return peak;
+    }
+
+    /**
+     * Set the valid length and level statistics after the samples were filled in
+     */
+    void update(int length, double meanAbs, double rms, double peak) {
+        this.length = length;
+        this.meanAbs = meanAbs;
+        this.rms = rms;
+        this.peak = peak;
+    }
+
+    /**
+     * Set the valid length and work out the level statistics from the samples already in place
+     * For sources that write samples directly instead of decoding PCM
+     */
+    void measure(int length) {
+        double absSum = 0;
+        double squareSum = 0;
+        double maximum = 0;
+        for (int i = 0; i < length; i++) {
+            double magnitude = Math.abs(samples[i]);
+            absSum += magnitude;
+            squareSum += magnitude * magnitude;
+            if (magnitude > maximum) {
+                maximum = magnitude;
+            }
+        }
+        if (length > 0) {
+            update(length, absSum / length, Math.sqrt(squareSum / length), maximum);
+        } else {
+            update(0, 0, 0, 0);
+        }
+    }
+}
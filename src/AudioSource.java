@@ -0,0 +1,33 @@
+import javax.sound.sampled.AudioFormat;
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Where the tuner's audio comes from - a microphone, a file, a generator or a recording in memory
+ * Delivers integer PCM (8 or 16 bit, what PcmDecoder reads) into buffers owned by the caller,
+ * so the capture ring can be filled without extra copies.
+ */
+public interface AudioSource extends Closeable {
+
+    /**
+     * Format of the bytes read
+     */
+    AudioFormat getFormat();
+
+    /**
+     * Start delivering audio - a source can be started again after close
+     */
+    void start() throws IOException;
+
+    /**
+     * Fill buffer with the next length bytes of audio, blocking until they are available
+     * Returns the number of bytes read (less than length only at the end), or -1 at the end
+     */
+    int read(byte[] buffer, int offset, int length) throws IOException;
+
+    /**
+     * Stop delivering audio and release what start acquired
+     */
+    @Override
+    void close() throws IOException;
+}
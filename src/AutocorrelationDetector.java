@@ -0,0 +1,222 @@
+/**
+ * Windowed autocorrelation pitch detector
+ * Picks the lag with the strongest correlation inside the guitar range
+ */
+public class AutocorrelationDetector implements PitchDetector {
+
+    private static final double MIN_CORRELATION = 0.4; // Need strong correlation to be confident
+
+    private final double sampleRate;
+    private final int minPeriod;
+    private final int maxPeriod;
+    private final FftAutocorrelation fftCorrelation; // null means direct lag-by-lag sum
+    private final PolyphaseDecimator decimator;      // null means search at the full rate
+    private final WindowFunction window;
+
+    private double[] windowed = new double[0];
+    private final double[] lagCorrelation;           // Direct-sum correlation per lag, kept for interpolation
+    private double[] windowTable = new double[0];    // Table for the frame being analyzed
+    // Tables for recent frame lengths - room for every adaptive window length (256 to 4096)
+    // of both the main and the coarse stage, so the decimated engine never misses
+    private static final int RECENT_TABLE_SLOTS = 10;
+    private final double[][] recentTables = new double[RECENT_TABLE_SLOTS][];
+    private final double[][] recentWindowCorrelations = new double[RECENT_TABLE_SLOTS][]; // Per table, main stage only
+    private double[] windowCorrelation = new double[0]; // Window table's own autocorrelation per lag
+
+    // Coarse search buffers for the decimated path
+    private double[] decimated = new double[0];
+    private double[] decimatedTable = new double[0];
+
+    /**
+     * Create a Hann-windowed detector for the given frequency range
+     * With useFft the correlation is computed through the FFT instead of the direct sum
+     */
+    public AutocorrelationDetector(double sampleRate, double minFrequency, double maxFrequency, boolean useFft) {
+        this(sampleRate, minFrequency, maxFrequency, useFft, WindowFunction.HANN);
+    }
+
+    /**
+     * Create a detector for the given frequency range using the given window
+     */
+    public AutocorrelationDetector(double sampleRate, double minFrequency, double maxFrequency,
+                                   boolean useFft, WindowFunction window) {
+        this(sampleRate, minFrequency, maxFrequency, useFft, window, 1);
+    }
+
+    /**
+     * Create a detector that searches lags on a signal decimated by the given factor,
+     * then refines the best lag on the full-rate frame (factor 1 disables decimation)
+     * Decimation replaces the FFT path, so useFft must be false when factor > 1
+     */
+    public AutocorrelationDetector(double sampleRate, double minFrequency, double maxFrequency,
+                                   boolean useFft, WindowFunction window, int decimationFactor) {
+        if (useFft && decimationFactor > 1) {
+            throw new IllegalArgumentException("Decimated search uses the direct sum, not the FFT");
+        }
+        this.sampleRate = sampleRate;
+        this.window = window;
+        this.minPeriod = (int) (sampleRate / maxFrequency);
+        this.maxPeriod = (int) (sampleRate / minFrequency);
+        this.fftCorrelation = useFft ? new FftAutocorrelation(4096) : null;
+        this.decimator = decimationFactor > 1 ? new PolyphaseDecimator(decimationFactor) : null;
+        this.lagCorrelation = new double[maxPeriod + 2];
+    }
+
+    @Override
+    public String getName() {
+        String name = fftCorrelation != null ? "Autocorrelation (FFT)"
+                : decimator != null ? "Autocorrelation (decimated ÷" + decimator.getFactor() + ")"
+                : "Autocorrelation";
+        return window == WindowFunction.HANN ? name : name + ", " + window;
+    }
+
+    @Override
+    public boolean detect(double[] samples, int length, PitchResult result) {
+        if (windowed.length < length) {
+            windowed = new double[length];
+        }
+        if (windowTable.length != length) {
+            int slot = slotFor(length);
+            windowTable = recentTables[slot];
+            if (recentWindowCorrelations[slot] == null) {
+                recentWindowCorrelations[slot] = correlateWindow(windowTable);
+            }
+            windowCorrelation = recentWindowCorrelations[slot];
+        }
+
+        // Apply window function to reduce artifacts
+        for (int i = 0; i < length; i++) {
+            windowed[i] = samples[i] * windowTable[i];
+        }
+
+        double maxCorrelation = 0;
+        double energy;
+        int bestPeriod = 0;
+        double[] correlation;
+
+        // Search lags minPeriod..lastPeriod, but also fill one lag either side for interpolation
+        int lastPeriod = Math.min(maxPeriod, length / 2 - 1);
+        int searchFrom = minPeriod;
+        int searchTo = lastPeriod;
+
+        if (fftCorrelation != null) {
+            // Whole correlation curve in one O(n log n) pass
+            correlation = fftCorrelation.compute(windowed, length);
+            energy = correlation[0];
+        } else {
+            correlation = lagCorrelation;
+            energy = 0;
+            for (int i = 0; i < length; i++) {
+                energy += windowed[i] * windowed[i];
+            }
+
+            if (decimator != null) {
+                // Coarse search on the decimated signal narrows the full-rate search to a few lags
+                int coarseLag = coarseSearch(samples, length);
+                if (coarseLag <= 0) {
+                    result.clear();
+                    return false;
+                }
+                int factor = decimator.getFactor();
+                searchFrom = Math.max(minPeriod, coarseLag * factor - factor);
+                searchTo = Math.min(lastPeriod, coarseLag * factor + factor);
+            }
+
+            for (int period = searchFrom - 1; period <= searchTo + 1; period++) {
+                double sum = 0;
+                for (int i = 0; i < length - period; i++) {
+                    sum += windowed[i] * windowed[i + period];
+                }
+                correlation[period] = sum;
+            }
+        }
+
+        for (int period = searchFrom; period <= searchTo; period++) {
+            if (correlation[period] > maxCorrelation) {
+                maxCorrelation = correlation[period];
+                bestPeriod = period;
+            }
+        }
+
+        if (maxCorrelation > MIN_CORRELATION && bestPeriod > 0) {
+            // Refine the integer lag to a fractional period; dividing by the window's own
+            // autocorrelation removes the taper the window adds, which would bias the peak to shorter lags
+            double offset = PeakInterpolation.parabolicOffset(
+                    correlation[bestPeriod - 1] / windowCorrelation[bestPeriod - 1],
+                    correlation[bestPeriod] / windowCorrelation[bestPeriod],
+                    correlation[bestPeriod + 1] / windowCorrelation[bestPeriod + 1]);
+            result.set(sampleRate / (bestPeriod + offset), maxCorrelation / energy);
+            return true;
+        }
+
+        result.clear();
+        return false;
+    }
+
+    /**
+     * Best lag (in decimated samples) of the windowed, decimated frame, or 0 if none is positive
+     */
+    private int coarseSearch(double[] samples, int length) {
+        int factor = decimator.getFactor();
+        int coarseLength = decimator.outputLength(length);
+        if (decimated.length < coarseLength) {
+            decimated = new double[coarseLength];
+        }
+        if (decimatedTable.length != coarseLength) {
+            decimatedTable = recentTables[slotFor(coarseLength)];
+        }
+
+        decimator.decimate(samples, length, decimated);
+        for (int i = 0; i < coarseLength; i++) {
+            decimated[i] *= decimatedTable[i];
+        }
+
+        int firstLag = Math.max(1, minPeriod / factor);
+        int lastLag = Math.min((maxPeriod + factor - 1) / factor, coarseLength / 2 - 1);
+        double maxCorrelation = 0;
+        int bestLag = 0;
+        for (int lag = firstLag; lag <= lastLag; lag++) {
+            double sum = 0;
+            for (int i = 0; i < coarseLength - lag; i++) {
+                sum += decimated[i] * decimated[i + lag];
+            }
+            if (sum > maxCorrelation) {
+                maxCorrelation = sum;
+                bestLag = lag;
+            }
+        }
+        return bestLag;
+    }
+
+    /**
+     * Slot in recentTables holding the window table for a frame length - kept locally so
+     * alternating between a few lengths doesn't go through the shared cache on every frame
+     */
+    private int slotFor(int length) {
+        for (int slot = 0; slot < recentTables.length; slot++) {
+            if (recentTables[slot] != null && recentTables[slot].length == length) {
+                return slot;
+            }
+        }
+        System.arraycopy(recentTables, 0, recentTables, 1, recentTables.length - 1);
+        System.arraycopy(recentWindowCorrelations, 0, recentWindowCorrelations, 1, recentWindowCorrelations.length - 1);
+        recentTables[0] = WindowCache.get(window, length);
+        recentWindowCorrelations[0] = null;
+        return 0;
+    }
+
+    /**
+     * Autocorrelation of a window table at every lag the peak refinement can use
+     */
+    private double[] correlateWindow(double[] table) {
+        double[] result = new double[Math.min(maxPeriod + 2, table.length)];
+        for (int lag = 0; lag < result.length; lag++) {
+            double sum = 0;
+            for (int i = 0; i < table.length - lag; i++) {
+                sum += table[i] * table[i + lag];
+            }
+            result[lag] = sum;
+        }
+        return result;
+    }
+}
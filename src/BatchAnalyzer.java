@@ -0,0 +1,319 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.stream.Stream;
+
+/**
+ * Offline analysis of whole directories of recordings, spread over a fixed pool of worker threads
+ * Every worker keeps its own OfflineAnalyzer, so detector state is allocated once per thread and
+ * workers share nothing but the task queue. Writes one track per recording plus summary.csv, e.g.
+ *   java BatchAnalyzer --threads 8 --output-dir tracks recordings/
+ */
+public class BatchAnalyzer {
+
+    private static final String USAGE = "Usage: java BatchAnalyzer [--threads <n>] [--format csv|json|binary]"
+            + " [--mode guitar|chromatic] --output-dir <dir> <audio file or directory>...";
+    private static final String SUMMARY_FILE = "summary.csv";
+    private static final String[] AUDIO_EXTENSIONS = {".wav", ".aif", ".aiff", ".aifc", ".au"};
+
+    /**
+     * Outcome of one recording
+     *
+     * @param input        the recording
+     * @param audioSeconds length of the recording in seconds
+     * @param hops         pitch track entries written
+     * @param lockedHops   entries with a locked string or note
+     * @param topTarget    target locked for the most hops, empty if none
+     * @param millis       wall-clock time spent on the recording
+     * @param error        why the recording was skipped, null on success
+     */
+    public record FileResult(Path input, double audioSeconds, long hops, long lockedHops, String topTarget,
+                             double millis, String error) {
+    }
+
+    private final TunerMode mode;
+    private final String format;
+    private final ThreadLocal<OfflineAnalyzer> analyzers;
+
+    /**
+     * Create a batch analyzer writing csv, json or binary (.ptrk) tracks
+     */
+    public BatchAnalyzer(TunerMode mode, String format) {
+        this.mode = mode;
+        this.format = format;
+        this.analyzers = ThreadLocal.withInitial(() -> new OfflineAnalyzer(mode));
+    }
+
+    /**
+     * Analyze every recording with at most the given number of files in flight
+     * Results come back in the order of the inputs
+     */
+    public List<FileResult> run(List<Path> inputs, List<Path> outputs, int threads) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads, task -> {
+            Thread thread = new Thread(task, "batch-analysis");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<FileResult>> futures = new ArrayList<>(inputs.size());
+            for (int i = 0; i < inputs.size(); i++) {
+                Path input = inputs.get(i);
+                Path output = outputs.get(i);
+                futures.add(executor.submit(() -> analyzeOne(input, output)));
+            }
+
+            List<FileResult> results = new ArrayList<>(futures.size());
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    results.add(futures.get(i).get());
+                } catch (ExecutionException e) {
+                    results.add(new FileResult(inputs.get(i), 0, 0, 0, "", 0, String.valueOf(e.getCause())));
+                }
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Analyze one recording on the calling worker thread
+     */
+    private FileResult analyzeOne(Path input, Path output) {
+        long start = System.nanoTime();
+        TrackStats stats = new TrackStats(mode);
+        try {
+            Files.createDirectories(output.getParent());
+            try (PitchTrackWriter writer = OfflineAnalyzer.openWriter(format, output)) {
+                stats.delegate = writer;
+                analyzers.get().analyze(input.toFile(), stats);
+            }
+            return stats.result(input, (System.nanoTime() - start) / 1_000_000.0, null);
+        } catch (Exception e) {
+            String error = e.getMessage() != null ? e.getMessage() : e.toString();
+            return stats.result(input, (System.nanoTime() - start) / 1_000_000.0, error);
+        }
+    }
+
+    /**
+     * Passes the track through to the file writer while counting what the summary needs
+     */
+    private static class TrackStats implements PitchTrackWriter {
+
+        private final TunerMode mode;
+        private final int[] targetHops;
+        private PitchTrackWriter delegate;
+        private double seconds;
+        private long hops;
+        private long lockedHops;
+
+        TrackStats(TunerMode mode) {
+            this.mode = mode;
+            this.targetHops = new int[mode == TunerMode.CHROMATIC
+                    ? TunerPipeline.CHROMATIC_NOTES.size() : TunerPipeline.STRING_NAMES.length];
+        }
+
+        @Override
+        public void beginFile(String name, float sampleRate) throws IOException {
+            delegate.beginFile(name, sampleRate);
+        }
+
+        @Override
+        public void write(double timeSeconds, DetectionSnapshot snapshot) throws IOException {
+            delegate.write(timeSeconds, snapshot);
+            seconds = timeSeconds;
+            hops++;
+            if (snapshot.hasTarget()) {
+                targetHops[snapshot.targetIndex()]++;
+                lockedHops++;
+            }
+        }
+
+        @Override
+        public void endFile() throws IOException {
+            delegate.endFile();
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+
+        FileResult result(Path input, double millis, String error) {
+            int top = -1;
+            for (int i = 0; i < targetHops.length; i++) {
+                if (targetHops[i] > 0 && (top < 0 || targetHops[i] > targetHops[top])) {
+                    top = i;
+                }
+            }
+            String topTarget = top >= 0 ? TunerPipeline.getTargetName(mode, top) : "";
+            return new FileResult(input, seconds, hops, lockedHops, topTarget, millis, error);
+        }
+    }
+
+    /**
+     * Collect the recordings under each argument, directories are searched recursively
+     * Each output mirrors the recording's path below the argument it was found under
+     */
+    private static void collectInputs(String argument, Path outputDir, String extension,
+                                      List<Path> inputs, List<Path> outputs) throws IOException {
+        Path root = Path.of(argument);
+        if (!Files.isDirectory(root)) {
+            inputs.add(root);
+            outputs.add(outputDir.resolve(trackName(root.getFileName().toString(), extension)));
+            return;
+        }
+        try (Stream<Path> files = Files.walk(root)) {
+            files.filter(Files::isRegularFile).filter(BatchAnalyzer::isAudioFile).sorted().forEach(file -> {
+                Path relative = root.relativize(file);
+                inputs.add(file);
+                outputs.add(outputDir.resolve(relative).resolveSibling(
+                        trackName(relative.getFileName().toString(), extension)));
+            });
+        }
+    }
+
+    private static boolean isAudioFile(Path file) {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        for (String extension : AUDIO_EXTENSIONS) {
+            if (name.endsWith(extension)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Describe the first two recordings that would write the same track, or one that would
+     * overwrite the summary; null if there are none
+     * Workers would write such a track from two threads at once
+     */
+    static String findCollision(List<Path> inputs, List<Path> outputs, Path summary) {
+        Map<Path, Path> writers = new HashMap<>();
+        for (int i = 0; i < inputs.size(); i++) {
+            Path output = outputs.get(i).toAbsolutePath().normalize();
+            if (output.equals(summary.toAbsolutePath().normalize())) {
+                return inputs.get(i) + " would overwrite " + summary + " - rename it";
+            }
+            Path previous = writers.putIfAbsent(output, inputs.get(i));
+            if (previous != null) {
+                return "Both " + previous + " and " + inputs.get(i) + " would be written to " + outputs.get(i)
+                        + " - rename one or analyze them into different output directories";
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Track file name for a recording, e.g. take1.wav -> take1.csv
+     */
+    private static String trackName(String fileName, String extension) {
+        int dot = fileName.lastIndexOf('.');
+        return (dot > 0 ? fileName.substring(0, dot) : fileName) + "." + extension;
+    }
+
+    /**
+     * Write one summary row per recording
+     */
+    private static void writeSummary(Path file, List<FileResult> results) throws IOException {
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8))) {
+            out.println("file,seconds,hops,locked_hops,top_target,millis,error");
+            for (FileResult result : results) {
+                out.printf(Locale.ROOT, "%s,%.3f,%d,%d,%s,%.1f,%s%n",
+                        CsvTrackWriter.quote(result.input().toString()), result.audioSeconds(), result.hops(),
+                        result.lockedHops(), CsvTrackWriter.quote(result.topTarget()), result.millis(),
+                        result.error() != null ? CsvTrackWriter.quote(result.error()) : "");
+            }
+        }
+    }
+
+    /**
+     * Command line entry point
+     */
+    public static void main(String[] args) throws Exception {
+        int threads = Runtime.getRuntime().availableProcessors();
+        String format = "csv";
+        TunerMode mode = TunerMode.GUITAR;
+        Path outputDir = null;
+        int first = 0;
+
+        // Options come before the inputs
+        while (first < args.length && args[first].startsWith("--")) {
+            String option = args[first];
+            if (first + 1 >= args.length) {
+                System.err.println("Missing value for " + option);
+                System.err.println(USAGE);
+                System.exit(2);
+            }
+            String value = args[first + 1];
+            switch (option) {
+                case "--threads" -> {
+                    try {
+                        threads = Math.max(1, Integer.parseInt(value));
+                    } catch (NumberFormatException e) {
+                        System.err.println("Invalid thread count: " + value);
+                        System.err.println(USAGE);
+                        System.exit(2);
+                    }
+                }
+                case "--format" -> format = value.toLowerCase(Locale.ROOT);
+                case "--mode" -> mode = TunerMode.fromName(value);
+                case "--output-dir" -> outputDir = Path.of(value);
+                default -> {
+                    System.err.println("Unknown option: " + option);
+                    System.err.println(USAGE);
+                    System.exit(2);
+                }
+            }
+            first += 2;
+        }
+        if (outputDir == null || first >= args.length || !OfflineAnalyzer.isKnownFormat(format)) {
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+        if (mode == TunerMode.STRUM) {
+            System.err.println("Strum mode has no single-pitch track - use guitar or chromatic");
+            System.exit(2);
+        }
+
+        List<Path> inputs = new ArrayList<>();
+        List<Path> outputs = new ArrayList<>();
+        for (int i = first; i < args.length; i++) {
+            collectInputs(args[i], outputDir, OfflineAnalyzer.extensionFor(format), inputs, outputs);
+        }
+        String collision = findCollision(inputs, outputs, outputDir.resolve(SUMMARY_FILE));
+        if (collision != null) {
+            System.err.println(collision);
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+
+        long start = System.nanoTime();
+        List<FileResult> results = new BatchAnalyzer(mode, format).run(inputs, outputs, threads);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        Files.createDirectories(outputDir);
+        writeSummary(outputDir.resolve(SUMMARY_FILE), results);
+
+        double audioSeconds = 0;
+        int failures = 0;
+        for (FileResult result : results) {
+            audioSeconds += result.audioSeconds();
+            if (result.error() != null) {
+                System.err.println("Skipped " + result.input() + ": " + result.error());
+                failures++;
+            }
+        }
+        System.out.printf(Locale.ROOT, "%d files (%.1f s of audio) in %.2f s on %d threads: %.1f files/s, %.1f audio-seconds/s%n",
+                results.size() - failures, audioSeconds, seconds, threads,
+                (results.size() - failures) / seconds, audioSeconds / seconds);
+        System.exit(failures > 0 ? 1 : 0);
+    }
+}
@@ -0,0 +1,108 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes the pitch track of one recording in a compact fixed-width binary format
+ * Records are packed into a reused direct buffer and written through a FileChannel in blocks,
+ * so writing costs no allocation per hop. Fixed-width records let PitchTrackReader seek by time.
+ *
+ * Layout (little-endian):
+ *   header, 32 bytes: magic "PTRK", version (short), mode ordinal (short), sample rate (float),
+ *                     hop size (int), record count (long, filled in on close), reserved (8 bytes)
+ *   record, 24 bytes: time in seconds (double), frequency (float), clarity (float), cents (float),
+ *                     target index (short), confirmations (short)
+ */
+public class BinaryTrackWriter implements PitchTrackWriter {
+
+    static final int MAGIC = 0x4B525450;       // "PTRK"
+    static final short VERSION = 1;
+    static final int HEADER_BYTES = 32;
+    static final int RECORD_BYTES = 24;
+    private static final int BLOCK_RECORDS = 256;
+
+    private final FileChannel channel;
+    private final ByteBuffer block = ByteBuffer.allocateDirect(BLOCK_RECORDS * RECORD_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    private final ByteBuffer patch = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN); // Header fields filled in later
+    private final int hopSize;
+    private boolean begun = false;
+    private long records = 0;
+
+    /**
+     * Create a track file, replacing any existing one
+     */
+    public BinaryTrackWriter(Path file, int hopSize) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        this.hopSize = hopSize;
+    }
+
+    /**
+     * Start the track - a binary track holds a single recording
+     */
+    @Override
+    public void beginFile(String name, float sampleRate) throws IOException {
+        if (begun) {
+            throw new IllegalStateException("A binary track holds one recording");
+        }
+        begun = true;
+        block.clear();
+        block.putInt(MAGIC).putShort(VERSION).putShort((short) 0).putFloat(sampleRate).putInt(hopSize)
+                .putLong(0).putLong(0);
+        flush();
+    }
+
+    @Override
+    public void write(double timeSeconds, DetectionSnapshot snapshot) throws IOException {
+        if (records == 0) {
+            // The mode is only known from the first snapshot
+            patch.clear();
+            patch.putShort((short) snapshot.mode().ordinal()).flip();
+            channel.write(patch, 6);
+        }
+        if (!block.hasRemaining()) {
+            flush();
+        }
+        block.putDouble(timeSeconds)
+                .putFloat((float) snapshot.frequency())
+                .putFloat((float) snapshot.clarity())
+                .putFloat((float) snapshot.cents())
+                .putShort((short) snapshot.targetIndex())
+                .putShort((short) snapshot.confirmations());
+        records++;
+    }
+
+    @Override
+    public void endFile() throws IOException {
+        flush();
+    }
+
+    /**
+     * Write what is buffered and fill in the record count
+     * A track that was never begun stays empty rather than getting a header without a recording
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            if (begun) {
+                flush();
+                patch.clear();
+                patch.putLong(records).flip();
+                channel.write(patch, 16);
+            }
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void flush() throws IOException {
+        block.flip();
+        while (block.hasRemaining()) {
+            channel.write(block);
+        }
+        block.clear();
+    }
+}
@@ -0,0 +1,194 @@
+import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Ellipse2D;
+import java.awt.image.BufferedImage;
+
+/**
+ * Pre-rendered images of the big tuner circle for the display states recently shown
+ * Each image holds the glow ring, circle, border, letter and name, cropped to their bounding
+ * box and rendered at device resolution so HiDPI screens stay sharp. Only the last few states
+ * are kept, so a mode with many targets (chromatic) doesn't pin one image per note. All images
+ * are thrown away when the panel size or screen scale changes.
+ */
+public class CircleDisplayCache {
+
+    private static final Color IDLE_COLOR = new Color(60, 60, 70);
+    private static final Font LETTER_FONT = new Font("Arial", Font.BOLD, 120);
+    private static final Font NAME_FONT = new Font("Arial", Font.BOLD, 18);
+    private static final BasicStroke BORDER_STROKE = new BasicStroke(4);
+    private static final int GLOW_ALPHA = 50;
+    private static final int GLOW_WIDTH = 20;           // Glow ring extends this far past the circle
+    private static final int NAME_OFFSET = 30;          // Name baseline below the circle
+    private static final int MARGIN = 4;                // Room for the border stroke and antialiasing
+    private static final int MAX_IMAGES = 6;            // Idle plus a few targets, with and without glow
+
+    private Color[] colors;
+    private String[] letters;
+    private String[] names;
+
+    // Most recently shown first - key is (state + 1) * 2 + (glow ? 1 : 0), state -1 is the idle "-"
+    private final int[] keys = new int[MAX_IMAGES];
+    private final BufferedImage[] images = new BufferedImage[MAX_IMAGES];
+    private final Rectangle[] bounds = new Rectangle[MAX_IMAGES];   // Panel area each image covers
+    private int imageCount = 0;
+    private int cachedWidth = -1;
+    private int cachedHeight = -1;
+    private double cachedScaleX = 0;
+    private double cachedScaleY = 0;
+
+    /**
+     * Create a cache for states drawn with the given colors, center letters and names
+     */
+    public CircleDisplayCache(Color[] colors, String[] letters, String[] names) {
+        setStates(colors, letters, names);
+    }
+
+    /**
+     * Replace the set of display states, dropping every cached image
+     */
+    public void setStates(Color[] colors, String[] letters, String[] names) {
+        this.colors = colors;
+        this.letters = letters;
+        this.names = names;
+        invalidate();
+    }
+
+    /**
+     * Blit the circle for a state (-1 for idle) onto a panel of the given size
+     */
+    public void paint(Graphics2D g2d, int width, int height, int state, boolean glow) {
+        if (width <= 0 || height <= 0) {
+            return;
+        }
+
+        AffineTransform transform = g2d.getTransform();
+        double scaleX = transform.getScaleX();
+        double scaleY = transform.getScaleY();
+        if (width != cachedWidth || height != cachedHeight || scaleX != cachedScaleX || scaleY != cachedScaleY) {
+            invalidate();
+            cachedWidth = width;
+            cachedHeight = height;
+            cachedScaleX = scaleX;
+            cachedScaleY = scaleY;
+        }
+
+        int key = (state + 1) * 2 + (glow ? 1 : 0);
+        int slot = 0;
+        while (slot < imageCount && keys[slot] != key) {
+            slot++;
+        }
+        BufferedImage image;
+        Rectangle area;
+        if (slot < imageCount) {
+            image = images[slot];
+            area = bounds[slot];
+        } else {
+            // Not cached - render it, evicting the least recently shown state when full
+            area = circleBounds(g2d, state);
+            image = render(state, glow, area);
+            slot = Math.min(imageCount, MAX_IMAGES - 1);
+            imageCount = slot + 1;
+        }
+
+        // Move to the front so the least recently shown state is always last
+        System.arraycopy(keys, 0, keys, 1, slot);
+        System.arraycopy(images, 0, images, 1, slot);
+        System.arraycopy(bounds, 0, bounds, 1, slot);
+        keys[0] = key;
+        images[0] = image;
+        bounds[0] = area;
+
+        g2d.drawImage(image, area.x, area.y, area.width, area.height, null);
+    }
+
+    /**
+     * Drop all cached images, e.g. after a resize
+     */
+    public void invalidate() {
+        for (int i = 0; i < imageCount; i++) {
+            images[i] = null;
+            bounds[i] = null;
+        }
+        imageCount = 0;
+    }
+
+    /**
+     * Panel area a state draws into: the glow ring, and the name below the circle
+     */
+    private Rectangle circleBounds(Graphics2D g2d, int state) {
+        int centerX = cachedWidth / 2;
+        int centerY = cachedHeight / 2;
+        int radius = Math.min(cachedWidth, cachedHeight) / 3;
+
+        int halfWidth = Math.max(radius + GLOW_WIDTH,
+                (g2d.getFontMetrics(LETTER_FONT).stringWidth(state >= 0 ? letters[state] : "-") + 1) / 2);
+        int bottom = centerY + radius + GLOW_WIDTH;
+        if (state >= 0) {
+            FontMetrics fm = g2d.getFontMetrics(NAME_FONT);
+            halfWidth = Math.max(halfWidth, (fm.stringWidth(names[state]) + 1) / 2);
+            bottom = Math.max(bottom, centerY + radius + NAME_OFFSET + fm.getDescent());
+        }
+        int top = centerY - radius - GLOW_WIDTH;
+        return new Rectangle(centerX - halfWidth - MARGIN, top - MARGIN,
+                2 * (halfWidth + MARGIN), bottom - top + 2 * MARGIN);
+    }
+
+    /**
+     * Render one state at device resolution, cropped to the given panel area
+     */
+    private BufferedImage render(int state, boolean glow, Rectangle area) {
+        int pixelWidth = Math.max(1, (int) Math.ceil(area.width * cachedScaleX));
+        int pixelHeight = Math.max(1, (int) Math.ceil(area.height * cachedScaleY));
+        BufferedImage image = new BufferedImage(pixelWidth, pixelHeight, BufferedImage.TYPE_INT_ARGB);
+
+        Graphics2D g2d = image.createGraphics();
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g2d.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g2d.scale(cachedScaleX, cachedScaleY);
+        g2d.translate(-area.x, -area.y);
+
+        int centerX = cachedWidth / 2;
+        int centerY = cachedHeight / 2;
+        int radius = Math.min(cachedWidth, cachedHeight) / 3;
+
+        // Determine colors based on the state
+        Color circleColor = state >= 0 ? colors[state] : IDLE_COLOR;
+        Color textColor = state >= 0 ? Color.BLACK : Color.WHITE;
+
+        // Outer glow ring for a strong signal
+        if (glow) {
+            g2d.setColor(new Color(circleColor.getRed(), circleColor.getGreen(), circleColor.getBlue(), GLOW_ALPHA));
+            g2d.fill(new Ellipse2D.Double(centerX - radius - GLOW_WIDTH, centerY - radius - GLOW_WIDTH,
+                    (radius + GLOW_WIDTH) * 2, (radius + GLOW_WIDTH) * 2));
+        }
+
+        // Main circle and border
+        g2d.setColor(circleColor);
+        g2d.fill(new Ellipse2D.Double(centerX - radius, centerY - radius, radius * 2, radius * 2));
+        g2d.setColor(circleColor.brighter());
+        g2d.setStroke(BORDER_STROKE);
+        g2d.draw(new Ellipse2D.Double(centerX - radius, centerY - radius, radius * 2, radius * 2));
+
+        // Letter in the center - GIANT SIZE
+        g2d.setColor(textColor);
+        g2d.setFont(LETTER_FONT);
+        FontMetrics fm = g2d.getFontMetrics();
+        String displayText = state >= 0 ? letters[state] : "-";
+        int textX = centerX - fm.stringWidth(displayText) / 2;
+        int textY = centerY + fm.getAscent() / 2 - 10;
+        g2d.drawString(displayText, textX, textY);
+
+        // Full name below the circle
+        if (state >= 0) {
+            g2d.setFont(NAME_FONT);
+            FontMetrics fm2 = g2d.getFontMetrics();
+            String name = names[state];
+            int nameX = centerX - fm2.stringWidth(name) / 2;
+            int nameY = centerY + radius + NAME_OFFSET;
+            g2d.drawString(name, nameX, nameY);
+        }
+
+        g2d.dispose();
+        return image;
+    }
+}
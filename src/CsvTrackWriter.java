@@ -0,0 +1,59 @@
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Locale;
+
+/**
+ * Writes pitch tracks as CSV with one header line and one row per hop
+ * Frequency is left empty when nothing was detected, target, cents and confidence when nothing is locked
+ */
+public class CsvTrackWriter implements PitchTrackWriter {
+
+    private final Writer out;
+    private String fileName;
+
+    public CsvTrackWriter(Writer out) throws IOException {
+        this.out = out;
+        out.write("file,time,frequency,target,cents,confidence\n");
+    }
+
+    @Override
+    public void beginFile(String name, float sampleRate) {
+        fileName = quote(name);
+    }
+
+    /**
+     * A CSV field for the text - quoted when it holds a separator, quote or line break,
+     * so the columns and rows stay aligned
+     */
+    static String quote(String text) {
+        boolean plain = text.indexOf(',') < 0 && text.indexOf('"') < 0
+                && text.indexOf('\n') < 0 && text.indexOf('\r') < 0;
+        return plain ? text : '"' + text.replace("\"", "\"\"") + '"';
+    }
+
+    @Override
+    public void write(double timeSeconds, DetectionSnapshot snapshot) throws IOException {
+        out.write(fileName);
+        out.write(String.format(Locale.ROOT, ",%.3f,", timeSeconds));
+        if (snapshot.frequency() > 0) {
+            out.write(String.format(Locale.ROOT, "%.2f", snapshot.frequency()));
+        }
+        out.write(',');
+        if (snapshot.hasTarget()) {
+            out.write(TunerPipeline.getTargetName(snapshot.mode(), snapshot.targetIndex()));
+            out.write(String.format(Locale.ROOT, ",%.1f,%.2f\n", snapshot.cents(), snapshot.confidence()));
+        } else {
+            out.write(",,\n");
+        }
+    }
+
+    @Override
+    public void endFile() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
@@ -0,0 +1,27 @@
+/**
+ * Everything the display needs about one analysis step, published as a single immutable value
+ * The analysis thread creates one per hop; the UI always renders one consistent snapshot
+ *
+ * @param mode          what the target index refers to
+ * @param targetIndex   locked string (GUITAR) or note table entry (CHROMATIC), or -1 when nothing is locked (always in STRUM)
+ * @param frequency     frequency detected in this hop in Hz, or -1 if none
+ * @param clarity       how periodic the detector found this hop (0..1), 0 if no frequency
+ * @param cents         deviation of frequency from the locked target, 0 unless this hop matched that target
+ * @param confirmations how many consistent readings back the locked target
+ * @param confidence    confirmations as a fraction of the required count (0..1)
+ * @param level         input level (mean absolute amplitude, 0..1)
+ * @param timestampNanos System.nanoTime() when the snapshot was taken
+ * @param stringCents   STRUM only: cents offset of every string, NaN for strings not heard; null in other modes.
+ *                      Shared with the UI, so never modified after publishing
+ */
+public record DetectionSnapshot(TunerMode mode, int targetIndex, double frequency, double clarity, double cents,
+                                int confirmations, double confidence, double level,
+                                long timestampNanos, double[] stringCents) {
+
+    /** Nothing detected, silent input */
+    public static final DetectionSnapshot EMPTY = new DetectionSnapshot(TunerMode.GUITAR, -1, -1, 0, 0, 0, 0, 0, 0, null);
+
+    public boolean hasTarget() {
+        return targetIndex >= 0;
+    }
+}
@@ -0,0 +1,77 @@
+import java.util.Arrays;
+
+/**
+ * Autocorrelation through the FFT (Wiener-Khinchin theorem)
+ * Gives the same result as the direct lag-by-lag sum in O(n log n)
+ */
+public class FftAutocorrelation {
+
+    // One transform per power-of-two size, so shorter frames use a shorter FFT
+    private final RealFft[] transforms = new RealFft[31];
+    private double[] padded;
+    private double[] spectrumRe;
+    private double[] spectrumIm;
+    private double[] correlation;
+
+    /**
+     * Create an engine sized for frames of the given length
+     */
+    public FftAutocorrelation(int frameLength) {
+        resize(frameLength);
+    }
+
+    /**
+     * Compute the autocorrelation of the first length samples
+     * Entry [lag] of the returned array equals sum(samples[i] * samples[i + lag]);
+     * the array is reused between calls
+     */
+    public double[] compute(double[] samples, int length) {
+        int size = transformSize(length);
+        if (size > padded.length) {
+            resize(length);
+        }
+        int sizeIndex = Integer.numberOfTrailingZeros(size);
+        RealFft fft = transforms[sizeIndex];
+        if (fft == null) {
+            fft = new RealFft(size);
+            transforms[sizeIndex] = fft;
+        }
+
+        // Zero-pad to at least twice the frame so the circular correlation doesn't wrap
+        System.arraycopy(samples, 0, padded, 0, length);
+        Arrays.fill(padded, length, size, 0.0);
+
+        fft.forward(padded, spectrumRe, spectrumIm);
+
+        // Power spectrum
+        for (int k = 0; k <= size / 2; k++) {
+            spectrumRe[k] = spectrumRe[k] * spectrumRe[k] + spectrumIm[k] * spectrumIm[k];
+            spectrumIm[k] = 0.0;
+        }
+
+        fft.inverse(spectrumRe, spectrumIm, correlation);
+        return correlation;
+    }
+
+    /**
+     * Smallest power-of-two transform that holds the frame twice over
+     */
+    private static int transformSize(int frameLength) {
+        int size = 4;
+        while (size < 2 * frameLength) {
+            size <<= 1;
+        }
+        return size;
+    }
+
+    /**
+     * Allocate buffers big enough for frames of the given length
+     */
+    private void resize(int frameLength) {
+        int size = transformSize(frameLength);
+        padded = new double[size];
+        spectrumRe = new double[size / 2 + 1];
+        spectrumIm = new double[size / 2 + 1];
+        correlation = new double[size];
+    }
+}
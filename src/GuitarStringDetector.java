@@ -1,9 +1,7 @@
 import javax.sound.sampled.*;
 import javax.swing.*;
 import java.awt.*;
-import java.awt.geom.Ellipse2D;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * A stable guitar string tuner with a big circular display
@@ -11,12 +9,7 @@ import java.util.List;
  */
 public class GuitarStringDetector extends JFrame {
 
-    // Standard guitar string frequencies and names
-    private static final double[] STRING_FREQUENCIES = {82.41, 110.00, 146.83, 196.00, 246.94, 329.63};
-    private static final String[] STRING_NAMES = {"E", "A", "D", "G", "B", "E"};
-    private static final String[] STRING_FULL_NAMES = {"Low E (6th)", "A (5th)", "D (4th)", "G (3rd)", "B (2nd)", "High E (1st)"};
-
-    // Colors for each string
+    // Colors for each string, in TunerPipeline.STRING_FREQUENCIES order
     private static final Color[] STRING_COLORS = {
             new Color(220, 50, 50),   // Low E - Red
             new Color(255, 140, 0),   // A - Orange
@@ -26,30 +19,82 @@ public class GuitarStringDetector extends JFrame {
             new Color(138, 43, 226)   // High E - Purple
     };
 
-    // Audio setup
-    private AudioFormat audioFormat;
-    private TargetDataLine microphone;
-    private boolean isListening = false;
-    private Thread audioThread;
+    // Chromatic mode - every equal-tempered note from E1 to E6, colored by pitch class
+    private static final NoteTable CHROMATIC_NOTES = TunerPipeline.CHROMATIC_NOTES;
+    private static final String[] NOTE_LETTERS = new String[CHROMATIC_NOTES.size()];
+    private static final String[] NOTE_NAMES = new String[CHROMATIC_NOTES.size()];
+    private static final Color[] NOTE_COLORS = new Color[CHROMATIC_NOTES.size()];
+    static {
+        for (int i = 0; i < CHROMATIC_NOTES.size(); i++) {
+            NOTE_LETTERS[i] = CHROMATIC_NOTES.getPitchClass(i);
+            NOTE_NAMES[i] = String.format("%s (%.2f Hz)", CHROMATIC_NOTES.getName(i), CHROMATIC_NOTES.getFrequency(i));
+            NOTE_COLORS[i] = Color.getHSBColor(CHROMATIC_NOTES.getPitchClassIndex(i) / 12f, 0.75f, 0.95f);
+        }
+    }
 
-    // Stability settings - these prevent jumping around
-    private static final double MIN_VOLUME_THRESHOLD = 0.03;  // Ignore quiet sounds
-    private static final int REQUIRED_CONFIRMATIONS = 6;      // Need 6 consistent readings
-    private static final double FREQUENCY_TOLERANCE = 15.0;   // ±15 Hz tolerance
+    // Audio setup - pick with -Dtuner.source=microphone|synthetic|<audio file>, files play in real time
+    private static final String SOURCE_PROPERTY = "tuner.source";
+    private static final double SYNTHETIC_SECONDS_PER_NOTE = 2.0;
+    private AudioSource audioSource;
+    private volatile boolean isListening = false;
+    private int session = 0;                                   // Counts starts - only touched on the EDT
+    private Thread captureThread;
+    private Thread analysisThread;
+    private static final long THREAD_JOIN_MILLIS = 2000;       // Longest wait for the last session to wind down
+
+    // Hand-off between capture and analysis - pick with -Dtuner.overflow=drop-oldest|block
+    private static final int RING_SLOTS = 64;                  // ~1.5 s of audio at the default hop
+    private static final String OVERFLOW_PROPERTY = "tuner.overflow";
+    private static final OverflowPolicy OVERFLOW_POLICY = OverflowPolicy.fromName(System.getProperty(OVERFLOW_PROPERTY));
+    private volatile PcmRingBuffer captureRing;
+
+    // Detection and stability - fed by the analysis thread, detector can be switched while listening
+    private TunerPipeline pipeline = new TunerPipeline(TunerPipeline.SAMPLE_RATE);
+    private volatile TunerMode tunerMode = TunerMode.GUITAR;
+    private volatile boolean resetRequested = false;           // Picked up by the analysis thread
+
+    // Strum meters
+    private static final int STRUM_CENTS_RANGE = 50;           // Meters span ±50 cents
+    private static final Font STRUM_FONT = new Font("Arial", Font.BOLD, 20);
+    private static final Color STRUM_TRACK_COLOR = new Color(70, 70, 78);
+    private static final Color IN_TUNE_COLOR = new Color(50, 205, 50);
+    private static final String[] STRUM_CENTS_TEXTS = new String[2 * STRUM_CENTS_RANGE + 1];
+    static {
+        for (int i = 0; i < STRUM_CENTS_TEXTS.length; i++) {
+            STRUM_CENTS_TEXTS[i] = String.format("%+d", i - STRUM_CENTS_RANGE);
+        }
+    }
 
-    // Current state
-    private String currentString = "-";
-    private String lockedString = "-";
-    private int confirmationCount = 0;
-    private double currentVolume = 0.0;
-    private List<String> recentDetections = new ArrayList<>();
+    // Display text cache - labels are only rebuilt when what they show changes
+    private static final String[] VOLUME_TEXTS = new String[101];
+    static {
+        for (int i = 0; i < VOLUME_TEXTS.length; i++) {
+            VOLUME_TEXTS[i] = "Volume: " + (i > 3 ? i + "%" : "Silent");
+        }
+    }
+    private final UpdateCoalescer displayUpdater = new UpdateCoalescer(this::updateDisplay);
+    private static final int SHOWN_NOTHING = -2;              // Forces the status text to be rebuilt
+    private int shownStringIndex = SHOWN_NOTHING;
+    private int shownConfirmations = -1;
+    private int shownCents = 0;
+    private int shownStrumCount = -1;
+    private int shownDetectHundredths = -1;
+    private int shownDetectP99Hundredths = -1;
+    private int shownWindowSize = -1;
+    private long shownDroppedFrames = -1;
+
+    // Latest result, published by the analysis thread and rendered by the UI
+    private final AtomicReference<DetectionSnapshot> latestSnapshot = new AtomicReference<>(DetectionSnapshot.EMPTY);
 
     // GUI components
     private JPanel circlePanel;
+    private final CircleDisplayCache circleCache = new CircleDisplayCache(STRING_COLORS,
+            TunerPipeline.STRING_NAMES, TunerPipeline.STRING_FULL_NAMES);
     private JButton startStopButton;
     private JLabel volumeLabel;
     private JLabel statusLabel;
     private JProgressBar volumeMeter;
+    private JLabel detectorLabel;
 
     /**
      * Constructor - sets up the guitar string tuner
@@ -59,6 +104,9 @@ public class GuitarStringDetector extends JFrame {
         setupAudio();
         createInterface();
         setLocationRelativeTo(null);
+
+        // Stage latencies and frame counts for JConsole and other monitors
+        pipeline.getStats().registerMBean();
     }
 
     /**
@@ -66,7 +114,7 @@ public class GuitarStringDetector extends JFrame {
      */
     private void setupWindow() {
         setTitle("Guitar String Detection");
-        setSize(600, 700);
+        setSize(600, 800);
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         setResizable(false);
 
@@ -78,16 +126,45 @@ public class GuitarStringDetector extends JFrame {
      * Setup audio recording system
      */
     private void setupAudio() {
-        // High quality audio format for accurate detection
-        audioFormat = new AudioFormat(44100.0f, 16, 1, true, false);
-
+        String source = System.getProperty(SOURCE_PROPERTY, "microphone");
         try {
-            DataLine.Info info = new DataLine.Info(TargetDataLine.class, audioFormat);
-            microphone = (TargetDataLine) AudioSystem.getLine(info);
+            audioSource = createAudioSource(source);
         } catch (LineUnavailableException e) {
             JOptionPane.showMessageDialog(this,
                     "Cannot access microphone. Please check your audio settings.",
                     "Microphone Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        } catch (Exception e) {
+            JOptionPane.showMessageDialog(this,
+                    "Cannot open audio source " + source + ": " + e.getMessage(),
+                    "Audio Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+
+        // Files can have their own sample rate - the pipeline follows the source
+        float sampleRate = audioSource.getFormat().getSampleRate();
+        if (sampleRate != pipeline.getSampleRate()) {
+            pipeline = new TunerPipeline(sampleRate);
+        }
+    }
+
+    /**
+     * Open the audio source named by -Dtuner.source
+     */
+    static AudioSource createAudioSource(String name) throws Exception {
+        switch (name.toLowerCase()) {
+            case "microphone", "mic" -> {
+                // High quality audio format for accurate detection
+                return new MicrophoneSource(new AudioFormat(TunerPipeline.SAMPLE_RATE, 16, 1, true, false));
+            }
+            case "synthetic" -> {
+                // Plucks every open string in turn, low E to high E, over and over
+                return new SyntheticSource(TunerPipeline.SAMPLE_RATE, TunerPipeline.STRING_FREQUENCIES,
+                        SYNTHETIC_SECONDS_PER_NOTE, 0, true, 1);
+            }
+            default -> {
+                return new AudioFileSource(new java.io.File(name), true);
+            }
         }
     }
 
@@ -158,7 +235,6 @@ public class GuitarStringDetector extends JFrame {
      */
     private void drawCircularDisplay(Graphics g) {
         Graphics2D g2d = (Graphics2D) g;
-        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
 
         int width = circlePanel.getWidth();
         int height = circlePanel.getHeight();
@@ -166,74 +242,31 @@ public class GuitarStringDetector extends JFrame {
         int centerY = height / 2;
         int radius = Math.min(width, height) / 3;
 
-        // Determine colors based on current string
-        Color circleColor = new Color(60, 60, 70);
-        Color textColor = Color.WHITE;
-
-        if (!currentString.equals("-")) {
-            // Find the string index and use its color
-            for (int i = 0; i < STRING_NAMES.length; i++) {
-                if (STRING_NAMES[i].equals(currentString)) {
-                    circleColor = STRING_COLORS[i];
-                    textColor = Color.BLACK;
-                    break;
-                }
-            }
-        }
+        // Render one consistent snapshot of the detection state
+        DetectionSnapshot snapshot = latestSnapshot.get();
 
-        // Draw outer glow ring if we have a strong signal
-        if (currentVolume > MIN_VOLUME_THRESHOLD) {
-            g2d.setColor(new Color(circleColor.getRed(), circleColor.getGreen(), circleColor.getBlue(), 50));
-            g2d.fill(new Ellipse2D.Double(centerX - radius - 20, centerY - radius - 20,
-                    (radius + 20) * 2, (radius + 20) * 2));
+        if (tunerMode == TunerMode.STRUM) {
+            drawStrumDisplay(g2d, width, height, snapshot.mode() == TunerMode.STRUM ? snapshot.stringCents() : null);
+            return;
         }
 
-        // Draw main circle
-        g2d.setColor(circleColor);
-        g2d.fill(new Ellipse2D.Double(centerX - radius, centerY - radius, radius * 2, radius * 2));
-
-        // Draw circle border
-        g2d.setColor(circleColor.brighter());
-        g2d.setStroke(new BasicStroke(4));
-        g2d.draw(new Ellipse2D.Double(centerX - radius, centerY - radius, radius * 2, radius * 2));
-
-        // Draw the string letter in the center - GIANT SIZE
-        g2d.setColor(textColor);
-        g2d.setFont(new Font("Arial", Font.BOLD, 120));
-        FontMetrics fm = g2d.getFontMetrics();
-        String displayText = currentString;
-        int textX = centerX - fm.stringWidth(displayText) / 2;
-        int textY = centerY + fm.getAscent() / 2 - 10;
-        g2d.drawString(displayText, textX, textY);
-
-        // Draw string name below if we have a detection
-        if (!currentString.equals("-")) {
-            for (int i = 0; i < STRING_NAMES.length; i++) {
-                if (STRING_NAMES[i].equals(currentString)) {
-                    g2d.setFont(new Font("Arial", Font.BOLD, 18));
-                    FontMetrics fm2 = g2d.getFontMetrics();
-                    String stringName = STRING_FULL_NAMES[i];
-                    int nameX = centerX - fm2.stringWidth(stringName) / 2;
-                    int nameY = centerY + radius + 30;
-                    g2d.drawString(stringName, nameX, nameY);
-                    break;
-                }
-            }
-        }
+        // Circle, glow ring, letter and name come pre-rendered from the cache
+        int targetIndex = snapshot.mode() == tunerMode ? snapshot.targetIndex() : -1;
+        circleCache.paint(g2d, width, height, targetIndex, snapshot.level() > TunerPipeline.MIN_VOLUME_THRESHOLD);
 
         // Draw confidence indicator dots around the circle
-        if (confirmationCount > 0) {
-            drawConfidenceDots(g2d, centerX, centerY, radius + 35);
+        if (snapshot.confirmations() > 0) {
+            g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            drawConfidenceDots(g2d, centerX, centerY, radius + 35, snapshot.confirmations());
         }
     }
 
     /**
      * Draw confidence indicator dots around the circle
      */
-    private void drawConfidenceDots(Graphics2D g2d, int centerX, int centerY, int dotRadius) {
+    private void drawConfidenceDots(Graphics2D g2d, int centerX, int centerY, int dotRadius, int filledDots) {
         g2d.setColor(Color.WHITE);
-        int totalDots = REQUIRED_CONFIRMATIONS;
-        int filledDots = confirmationCount;
+        int totalDots = TunerPipeline.REQUIRED_CONFIRMATIONS;
 
         for (int i = 0; i < totalDots; i++) {
             double angle = (i * 2 * Math.PI) / totalDots - Math.PI / 2; // Start from top
@@ -248,6 +281,55 @@ public class GuitarStringDetector extends JFrame {
         }
     }
 
+    /**
+     * Draw one cents meter per string for strum mode
+     * Strings that weren't heard show an empty meter
+     */
+    private void drawStrumDisplay(Graphics2D g2d, int width, int height, double[] stringCents) {
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g2d.setFont(STRUM_FONT);
+        FontMetrics metrics = g2d.getFontMetrics();
+
+        int rows = TunerPipeline.STRING_NAMES.length;
+        int rowHeight = Math.min(60, height / (rows + 1));
+        int top = (height - rowHeight * rows) / 2;
+        int meterLeft = 80;
+        int meterRight = width - 90;
+        int meterCenter = (meterLeft + meterRight) / 2;
+        int meterHalf = (meterRight - meterLeft) / 2;
+
+        for (int i = 0; i < rows; i++) {
+            // Thinnest string at the top, like looking down at the neck
+            int string = rows - 1 - i;
+            int y = top + i * rowHeight + rowHeight / 2;
+            double cents = stringCents != null ? stringCents[string] : Double.NaN;
+            boolean heard = !Double.isNaN(cents);
+
+            // String letter in its color
+            g2d.setColor(heard ? STRING_COLORS[string] : Color.GRAY);
+            g2d.fillOval(20, y - 18, 36, 36);
+            g2d.setColor(Color.WHITE);
+            String letter = TunerPipeline.STRING_NAMES[string];
+            g2d.drawString(letter, 38 - metrics.stringWidth(letter) / 2, y + metrics.getAscent() / 2 - 2);
+
+            // Meter track with the in-tune mark in the middle
+            g2d.setColor(STRUM_TRACK_COLOR);
+            g2d.fillRoundRect(meterLeft, y - 4, meterRight - meterLeft, 8, 8, 8);
+            g2d.setColor(Color.LIGHT_GRAY);
+            g2d.fillRect(meterCenter - 1, y - 12, 3, 24);
+
+            if (heard) {
+                int clamped = (int) Math.round(Math.max(-STRUM_CENTS_RANGE, Math.min(STRUM_CENTS_RANGE, cents)));
+                int markerX = meterCenter + clamped * meterHalf / STRUM_CENTS_RANGE;
+                g2d.setColor(Math.abs(cents) <= 5 ? IN_TUNE_COLOR : STRING_COLORS[string]);
+                g2d.fillOval(markerX - 9, y - 9, 18, 18);
+
+                g2d.setColor(Color.WHITE);
+                g2d.drawString(STRUM_CENTS_TEXTS[clamped + STRUM_CENTS_RANGE], meterRight + 15, y + metrics.getAscent() / 2 - 2);
+            }
+        }
+    }
+
     /**
      * Create control panel with buttons and volume meter
      */
@@ -273,6 +355,32 @@ public class GuitarStringDetector extends JFrame {
         volumeMeter.setMaximumSize(new Dimension(400, 25));
         volumeMeter.setAlignmentX(Component.CENTER_ALIGNMENT);
 
+        // Detector picker
+        JComboBox<String> detectorBox = new JComboBox<>();
+        for (String name : pipeline.getDetectorNames()) {
+            detectorBox.addItem(name);
+        }
+        detectorBox.setSelectedIndex(pipeline.getDetectorChoice());
+        detectorBox.setFont(new Font("Arial", Font.PLAIN, 14));
+        detectorBox.setMaximumSize(new Dimension(250, 28));
+        detectorBox.setAlignmentX(Component.CENTER_ALIGNMENT);
+
+        detectorBox.addActionListener(e -> pipeline.setDetectorChoice(detectorBox.getSelectedIndex()));
+
+        // Tuner mode picker
+        JComboBox<TunerMode> modeBox = new JComboBox<>(TunerMode.values());
+        modeBox.setFont(new Font("Arial", Font.PLAIN, 14));
+        modeBox.setMaximumSize(new Dimension(250, 28));
+        modeBox.setAlignmentX(Component.CENTER_ALIGNMENT);
+
+        modeBox.addActionListener(e -> switchMode((TunerMode) modeBox.getSelectedItem()));
+
+        // Detector timing display
+        detectorLabel = new JLabel("Detector time: -");
+        detectorLabel.setFont(new Font("Arial", Font.PLAIN, 12));
+        detectorLabel.setForeground(Color.LIGHT_GRAY);
+        detectorLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
+
         // Start/Stop button
         startStopButton = new JButton("🎤 Start Listening");
         startStopButton.setFont(new Font("Arial", Font.BOLD, 18));
@@ -305,7 +413,13 @@ public class GuitarStringDetector extends JFrame {
         controlPanel.add(volumeLabel);
         controlPanel.add(Box.createVerticalStrut(8));
         controlPanel.add(volumeMeter);
-        controlPanel.add(Box.createVerticalStrut(20));
+        controlPanel.add(Box.createVerticalStrut(12));
+        controlPanel.add(modeBox);
+        controlPanel.add(Box.createVerticalStrut(6));
+        controlPanel.add(detectorBox);
+        controlPanel.add(Box.createVerticalStrut(4));
+        controlPanel.add(detectorLabel);
+        controlPanel.add(Box.createVerticalStrut(12));
         controlPanel.add(startStopButton);
         controlPanel.add(Box.createVerticalStrut(10));
         controlPanel.add(resetButton);
@@ -317,59 +431,136 @@ public class GuitarStringDetector extends JFrame {
      * Reset the detection system
      */
     private void resetDetection() {
-        currentString = "-";
-        lockedString = "-";
-        confirmationCount = 0;
-        recentDetections.clear();
+        // The analysis thread owns the stability state, so it clears it on its next hop
+        resetRequested = true;
+        latestSnapshot.set(DetectionSnapshot.EMPTY);
 
         SwingUtilities.invokeLater(() -> {
             statusLabel.setText("Detection reset - play a string");
+            shownStringIndex = SHOWN_NOTHING;
             circlePanel.repaint();
         });
     }
 
     /**
-     * Start listening to the microphone
+     * Switch between guitar string and chromatic tuning
+     */
+    private void switchMode(TunerMode mode) {
+        if (mode == null || mode == tunerMode) {
+            return;
+        }
+        tunerMode = mode;
+        resetRequested = true;
+        latestSnapshot.set(DetectionSnapshot.EMPTY);
+
+        if (mode == TunerMode.CHROMATIC) {
+            circleCache.setStates(NOTE_COLORS, NOTE_LETTERS, NOTE_NAMES);
+        } else {
+            circleCache.setStates(STRING_COLORS, TunerPipeline.STRING_NAMES, TunerPipeline.STRING_FULL_NAMES);
+        }
+        shownStringIndex = SHOWN_NOTHING;
+        updateDisplay();
+    }
+
+    /**
+     * Start listening to the audio source
      */
     private void startListening() {
-        if (microphone == null) {
+        if (audioSource == null) {
             JOptionPane.showMessageDialog(this,
-                    "Microphone not available!", "Error", JOptionPane.ERROR_MESSAGE);
+                    "Audio source not available!", "Error", JOptionPane.ERROR_MESSAGE);
             return;
         }
 
+        // The last session's threads may still be draining its ring into the pipeline
+        if (!joinSessionThreads()) {
+            JOptionPane.showMessageDialog(this,
+                    "The last session is still stopping - try again in a moment.",
+                    "Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+
+        // Start from nothing - the windows still hold the last session's audio and would
+        // flash the last note played; safe now that no analysis thread is running
+        pipeline.clear();
+        resetRequested = false;
+        latestSnapshot.set(DetectionSnapshot.EMPTY);
+
         try {
-            microphone.open(audioFormat);
-            microphone.start();
+            audioSource.start();
             isListening = true;
+            int started = ++session;
 
             startStopButton.setForeground(Color.black);
             startStopButton.setText("🛑 Stop Listening");
             startStopButton.setBackground(new Color(180, 70, 70));
 
-            // Start audio processing thread
-            audioThread = new Thread(this::processAudio);
-            audioThread.setDaemon(true);
-            audioThread.start();
+            // Capture and analysis run on separate threads joined by a lock-free ring
+            PcmRingBuffer ring = new PcmRingBuffer(RING_SLOTS,
+                    TunerPipeline.HOP_SIZE * audioSource.getFormat().getFrameSize(), OVERFLOW_POLICY);
+            captureRing = ring;
+
+            captureThread = new Thread(() -> captureAudio(ring, started), "audio-capture");
+            captureThread.setDaemon(true);
+            captureThread.setPriority(Thread.MAX_PRIORITY);
+
+            analysisThread = new Thread(() -> processAudio(ring), "audio-analysis");
+            analysisThread.setDaemon(true);
+
+            analysisThread.start();
+            captureThread.start();
 
             statusLabel.setText("Listening... Play a guitar string");
+            shownStringIndex = SHOWN_NOTHING;
 
-        } catch (LineUnavailableException e) {
+        } catch (java.io.IOException e) {
             JOptionPane.showMessageDialog(this,
-                    "Cannot start microphone: " + e.getMessage(),
+                    "Cannot start audio source: " + e.getMessage(),
                     "Error", JOptionPane.ERROR_MESSAGE);
         }
     }
 
     /**
-     * Stop listening to the microphone
+     * Wait for the capture and analysis threads of the last session to finish
+     * Returns false if one is still running, so the pipeline isn't shared by two sessions
+     */
+    private boolean joinSessionThreads() {
+        // Hops still queued from the stopped session aren't worth analyzing
+        if (analysisThread != null) {
+            analysisThread.interrupt();
+        }
+        for (Thread thread : new Thread[] {captureThread, analysisThread}) {
+            if (thread == null) {
+                continue;
+            }
+            try {
+                thread.join(THREAD_JOIN_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+            if (thread.isAlive()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Stop listening to the audio source
      */
     private void stopListening() {
         isListening = false;
+        if (captureRing != null) {
+            captureRing.close();
+        }
 
-        if (microphone != null && microphone.isOpen()) {
-            microphone.stop();
-            microphone.close();
+        if (audioSource != null) {
+            try {
+                audioSource.close();
+            } catch (java.io.IOException e) {
+                System.err.println("Audio source close error: " + e.getMessage());
+            }
         }
 
         startStopButton.setForeground(Color.black);
@@ -378,188 +569,199 @@ public class GuitarStringDetector extends JFrame {
 
         SwingUtilities.invokeLater(() -> {
             statusLabel.setText("Stopped listening");
+            shownStringIndex = SHOWN_NOTHING;
             volumeLabel.setText("Volume: Silent");
             volumeMeter.setValue(0);
         });
     }
 
     /**
-     * Main audio processing loop - handles stability and detection
+     * Capture loop - only reads the audio source into the ring so it never waits on analysis
+     * The session number lets an end-of-source stop only the session it came from
      */
-    private void processAudio() {
-        byte[] buffer = new byte[8192]; // Large buffer for accurate frequency analysis
-
+    private void captureAudio(PcmRingBuffer ring, int started) {
         while (isListening) {
+            byte[] slot = ring.claim();
+            if (slot == null) {
+                break; // Ring closed
+            }
+
+            // Blocks until a full hop has been captured - this sets the analysis cadence
+            int bytesRead;
             try {
-                int bytesRead = microphone.read(buffer, 0, buffer.length);
+                bytesRead = audioSource.read(slot, 0, slot.length);
+            } catch (Exception e) {
+                // A source that failed once (unreadable file, closed stream) won't recover - end the session
+                if (isListening) {
+                    System.err.println("Audio capture error: " + e.getMessage());
+                }
+                bytesRead = -1;
+            }
 
-                if (bytesRead > 0) {
-                    // Calculate volume level
-                    currentVolume = calculateVolume(buffer, bytesRead);
-
-                    // Only analyze if volume is above threshold
-                    String detectedString = "-";
-                    if (currentVolume > MIN_VOLUME_THRESHOLD) {
-                        double frequency = detectPrimaryFrequency(buffer, bytesRead);
-                        if (frequency > 0) {
-                            detectedString = findClosestString(frequency);
+            if (bytesRead > 0) {
+                ring.publish(bytesRead);
+            } else if (bytesRead < 0) {
+                // Files and generators end - stop the same way the button does, unless the
+                // user already stopped and started a new session before this runs
+                if (isListening) {
+                    SwingUtilities.invokeLater(() -> {
+                        if (session == started && isListening) {
+                            stopListening();
                         }
-                    }
-
-                    // Process the detection with stability logic
-                    processStringDetection(detectedString);
-
-                    // Update the display
-                    SwingUtilities.invokeLater(this::updateDisplay);
+                    });
                 }
-
-                Thread.sleep(100); // Slower updates for more stability
-
-            } catch (InterruptedException e) {
                 break;
-            } catch (Exception e) {
-                System.err.println("Audio processing error: " + e.getMessage());
             }
         }
+        ring.close();
     }
 
     /**
-     * Calculate volume level of the audio signal
+     * Main audio processing loop - decodes each hop and runs it through the pipeline
      */
-    private double calculateVolume(byte[] audioData, int length) {
-        long sum = 0;
-        for (int i = 0; i < length - 1; i += 2) {
-            int sample = (audioData[i] & 0xFF) | ((audioData[i + 1] & 0xFF) << 8);
-            if (sample > 32767) sample -= 65536;
-            sum += Math.abs(sample);
-        }
-        return (double) sum / (length / 2) / 32768.0;
-    }
-
-    /**
-     * Detect the primary frequency using auto correlation
-     * This is more accurate for single notes than FFT
-     */
-    private double detectPrimaryFrequency(byte[] audioData, int length) {
-        // Convert to double array
-        double[] samples = new double[length / 2];
-        for (int i = 0; i < samples.length; i++) {
-            int sample = (audioData[i * 2] & 0xFF) | ((audioData[i * 2 + 1] & 0xFF) << 8);
-            if (sample > 32767) sample -= 65536;
-            samples[i] = sample / 32768.0;
-        }
-
-        // Apply window function to reduce artifacts
-        for (int i = 0; i < samples.length; i++) {
-            samples[i] *= 0.5 * (1 - Math.cos(2 * Math.PI * i / (samples.length - 1)));
-        }
+    private void processAudio(PcmRingBuffer ring) {
+        // Frame buffers owned by this thread and reused for every hop
+        PcmDecoder decoder = new PcmDecoder(audioSource.getFormat());
+        byte[] buffer = new byte[ring.slotBytes()];
+        AudioFrame hopFrame = new AudioFrame(buffer.length / decoder.getFrameBytes());
+        PipelineStats stats = pipeline.getStats();
+        long droppedSeen = 0;
+        long nextLog = System.nanoTime() + PipelineStats.LOG_INTERVAL_NANOS;
+        while (true) {
+            try {
+                // Waits for the next captured hop
+                int bytesRead = ring.take(buffer);
+                if (bytesRead < 0) {
+                    break; // Capture stopped
+                }
 
-        // Auto correlation for pitch detection
-        int minPeriod = (int) (44100 / 400.0); // Max 400 Hz
-        int maxPeriod = (int) (44100 / 70.0);  // Min 70 Hz
+                if (bytesRead > 0) {
+                    // Pick up resets between hops - mode changes are handled by the pipeline
+                    if (resetRequested) {
+                        resetRequested = false;
+                        pipeline.reset();
+                    }
 
-        double maxCorrelation = 0;
-        int bestPeriod = 0;
+                    // Decode once - gives both the samples and the volume level
+                    long decodeStart = System.nanoTime();
+                    decoder.decode(buffer, bytesRead, hopFrame);
+                    stats.record(PipelineStats.Stage.DECODE, System.nanoTime() - decodeStart);
+
+                    // Detect and stabilize, then publish the result for the UI in one atomic step
+                    DetectionSnapshot snapshot = pipeline.process(hopFrame, tunerMode);
+                    long publishStart = System.nanoTime();
+                    latestSnapshot.set(snapshot);
+
+                    // Update the display - skipped if the previous update hasn't run yet
+                    displayUpdater.request();
+                    stats.record(PipelineStats.Stage.PUBLISH, System.nanoTime() - publishStart);
+
+                    // Hops the capture thread had to overwrite since the last one
+                    long dropped = ring.getDroppedFrames();
+                    if (dropped != droppedSeen) {
+                        stats.countDropped(dropped - droppedSeen);
+                        droppedSeen = dropped;
+                    }
 
-        for (int period = minPeriod; period <= maxPeriod && period < samples.length / 2; period++) {
-            double correlation = 0;
-            for (int i = 0; i < samples.length - period; i++) {
-                correlation += samples[i] * samples[i + period];
-            }
+                    if (PipelineStats.LOG_INTERVAL_NANOS > 0 && snapshot.timestampNanos() - nextLog >= 0) {
+                        nextLog += PipelineStats.LOG_INTERVAL_NANOS;
+                        System.out.println("Pipeline: " + stats.getSummary());
+                    }
+                }
 
-            if (correlation > maxCorrelation) {
-                maxCorrelation = correlation;
-                bestPeriod = period;
+            } catch (InterruptedException e) {
+                break;
+            } catch (Exception e) {
+                System.err.println("Audio processing error: " + e.getMessage());
             }
         }
-
-        // Need strong correlation to be confident
-        if (maxCorrelation > 0.4 && bestPeriod > 0) {
-            return 44100.0 / bestPeriod;
-        }
-
-        return -1; // No clear frequency found
     }
 
     /**
-     * Find the closest guitar string to the detected frequency
+     * Update all visual elements
      */
-    private String findClosestString(double frequency) {
-        double minDifference = Double.MAX_VALUE;
-        String closestString = "-";
-
-        for (int i = 0; i < STRING_FREQUENCIES.length; i++) {
-            double difference = Math.abs(frequency - STRING_FREQUENCIES[i]);
+    private void updateDisplay() {
+        // Update volume display
+        DetectionSnapshot snapshot = latestSnapshot.get();
+        int volumePercent = Math.min(100, (int) (snapshot.level() * 100));
+        volumeMeter.setValue(volumePercent);
+        volumeLabel.setText(VOLUME_TEXTS[volumePercent]);
+
+        // Update status only when what it shows changed
+        // Snapshots from the other mode can still arrive right after a switch
+        if (tunerMode == TunerMode.STRUM) {
+            updateStrumStatus(snapshot.mode() == TunerMode.STRUM ? snapshot.stringCents() : null);
+        } else {
+            updateStatus(snapshot);
+        }
 
-            // Only consider it a match if it's within tolerance
-            if (difference < FREQUENCY_TOLERANCE && difference < minDifference) {
-                minDifference = difference;
-                closestString = STRING_NAMES[i];
-            }
+        // Update detector latency and dropped hops when the shown values change
+        PipelineStats stats = pipeline.getStats();
+        LatencyHistogram detectLatency = stats.getLatency(PipelineStats.Stage.DETECT);
+        int detectHundredths = (int) Math.round(detectLatency.getPercentileNanos(50) / 10_000.0);
+        int detectP99Hundredths = (int) Math.round(detectLatency.getPercentileNanos(99) / 10_000.0);
+        long droppedFrames = stats.getFramesDropped();
+        int windowSize = pipeline.getDetectWindowSize();
+        if (detectHundredths > 0 && (detectHundredths != shownDetectHundredths
+                || detectP99Hundredths != shownDetectP99Hundredths || droppedFrames != shownDroppedFrames
+                || windowSize != shownWindowSize)) {
+            shownDetectHundredths = detectHundredths;
+            shownDetectP99Hundredths = detectP99Hundredths;
+            shownWindowSize = windowSize;
+            shownDroppedFrames = droppedFrames;
+            detectorLabel.setText(String.format("Detector: p50 %.2f ms, p99 %.2f ms, %d-sample window, %d dropped",
+                    detectHundredths / 100.0, detectP99Hundredths / 100.0, windowSize, droppedFrames));
+            detectorLabel.setToolTipText(stats.getSummary());
         }
 
-        return closestString;
+        // Repaint the circle
+        circlePanel.repaint();
     }
 
     /**
-     * Process string detection with stability logic
-     * This prevents jumping between strings
+     * Update the status text for the guitar and chromatic modes
+     * Only rebuilt when the string or confidence changed
      */
-    private void processStringDetection(String detectedString) {
-        // Add to recent detections
-        recentDetections.add(detectedString);
-        if (recentDetections.size() > 10) {
-            recentDetections.remove(0);
-        }
-
-        // If we detect the same string as currently locked
-        if (detectedString.equals(lockedString)) {
-            confirmationCount = Math.min(confirmationCount + 1, REQUIRED_CONFIRMATIONS);
-        }
-        // If we detect a different string
-        else if (!detectedString.equals("-")) {
-            // Count how many recent detections match this new string
-            long matchCount = recentDetections.stream()
-                    .filter(s -> s.equals(detectedString))
-                    .count();
-
-            // Only change if we have enough confirmations
-            if (matchCount >= REQUIRED_CONFIRMATIONS) {
-                lockedString = detectedString;
-                confirmationCount = (int) matchCount;
-            }
-        }
-        // If we detect silence
-        else {
-            // Slowly decrease confidence
-            confirmationCount = Math.max(0, confirmationCount - 1);
-            if (confirmationCount == 0) {
-                lockedString = "-";
+    private void updateStatus(DetectionSnapshot snapshot) {
+        boolean chromatic = tunerMode == TunerMode.CHROMATIC;
+        int targetIndex = snapshot.mode() == tunerMode ? snapshot.targetIndex() : -1;
+        int confirmations = snapshot.confirmations();
+        int cents = (int) Math.round(snapshot.cents());
+        if (targetIndex != shownStringIndex || confirmations != shownConfirmations || cents != shownCents) {
+            shownStringIndex = targetIndex;
+            shownConfirmations = confirmations;
+            shownCents = cents;
+            int confidencePercent = (confirmations * 100) / TunerPipeline.REQUIRED_CONFIRMATIONS;
+            if (targetIndex < 0) {
+                statusLabel.setText(chromatic ? "Play a note clearly..." : "Play a guitar string clearly...");
+            } else if (chromatic) {
+                statusLabel.setText(String.format("Note: %s %+d cents (%d%% confidence)",
+                        CHROMATIC_NOTES.getName(targetIndex), cents, confidencePercent));
+            } else {
+                statusLabel.setText(String.format("Detected: %s string %+d cents (%d%% confidence)",
+                        TunerPipeline.STRING_FULL_NAMES[targetIndex], cents, confidencePercent));
             }
         }
-
-        currentString = lockedString;
     }
 
     /**
-     * Update all visual elements
+     * Update the status text for strum mode with how many strings were heard
      */
-    private void updateDisplay() {
-        // Update volume display
-        int volumePercent = (int) (currentVolume * 100);
-        volumeMeter.setValue(Math.min(100, volumePercent));
-        volumeLabel.setText("Volume: " + (volumePercent > 3 ? volumePercent + "%" : "Silent"));
-
-        // Update status
-        if (currentString.equals("-")) {
-            statusLabel.setText("Play a guitar string clearly...");
-        } else {
-            int confidencePercent = (confirmationCount * 100) / REQUIRED_CONFIRMATIONS;
-            statusLabel.setText("Detected: " + currentString + " string (" + confidencePercent + "% confidence)");
+    private void updateStrumStatus(double[] stringCents) {
+        int heard = 0;
+        if (stringCents != null) {
+            for (double cents : stringCents) {
+                if (!Double.isNaN(cents)) {
+                    heard++;
+                }
+            }
+        }
+        if (heard != shownStrumCount || shownStringIndex != StabilityTracker.NONE) {
+            shownStrumCount = heard;
+            shownStringIndex = StabilityTracker.NONE;
+            statusLabel.setText(heard == 0 ? "Strum all six strings..."
+                    : String.format("Strum: %d of %d strings heard", heard, TunerPipeline.STRING_NAMES.length));
         }
-
-        // Repaint the circle
-        circlePanel.repaint();
     }
 
     /**
@@ -0,0 +1,74 @@
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Locale;
+
+/**
+ * Writes pitch tracks as a JSON array with one object per file
+ * Each file object holds its name, sample rate and a "track" array with one entry per hop;
+ * frequency is null when nothing was detected, target, cents and confidence when nothing is locked
+ */
+public class JsonTrackWriter implements PitchTrackWriter {
+
+    private final Writer out;
+    private boolean firstFile = true;
+    private boolean firstEntry;
+
+    public JsonTrackWriter(Writer out) throws IOException {
+        this.out = out;
+        out.write('[');
+    }
+
+    @Override
+    public void beginFile(String name, float sampleRate) throws IOException {
+        out.write(firstFile ? "\n" : ",\n");
+        out.write(String.format(Locale.ROOT, "{\"file\":%s,\"sampleRate\":%.0f,\"track\":[", quote(name), sampleRate));
+        firstFile = false;
+        firstEntry = true;
+    }
+
+    @Override
+    public void write(double timeSeconds, DetectionSnapshot snapshot) throws IOException {
+        out.write(firstEntry ? "\n" : ",\n");
+        firstEntry = false;
+        out.write(String.format(Locale.ROOT, "{\"time\":%.3f,\"frequency\":", timeSeconds));
+        out.write(snapshot.frequency() > 0 ? String.format(Locale.ROOT, "%.2f", snapshot.frequency()) : "null");
+        if (snapshot.hasTarget()) {
+            out.write(",\"target\":");
+            out.write(quote(TunerPipeline.getTargetName(snapshot.mode(), snapshot.targetIndex())));
+            out.write(String.format(Locale.ROOT, ",\"cents\":%.1f,\"confidence\":%.2f}", snapshot.cents(),
+                    snapshot.confidence()));
+        } else {
+            out.write(",\"target\":null,\"cents\":null,\"confidence\":null}");
+        }
+    }
+
+    @Override
+    public void endFile() throws IOException {
+        out.write("\n]}");
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.write("\n]\n");
+        out.close();
+    }
+
+    /**
+     * JSON string literal for a file or target name
+     */
+    private static String quote(String text) {
+        StringBuilder quoted = new StringBuilder(text.length() + 2).append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"' || c == '\\') {
+                quoted.append('\\').append(c);
+            } else if (c < 0x20) {
+                quoted.append(String.format("\\u%04x", (int) c));
+            } else {
+                quoted.append(c);
+            }
+        }
+        return quoted.append('"').toString();
+    }
+}
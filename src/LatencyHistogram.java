@@ -0,0 +1,110 @@
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-bucket histogram of durations in nanoseconds, cheap enough to record every hop
+ * Buckets are log-linear: exact below 16 ns, then 8 per power of two, so any percentile is
+ * within about 12% of the true value up to about 18 minutes. All buckets are allocated up front
+ * and recording never allocates. One thread may record while any number of others read;
+ * readers see a consistent-enough picture, not an atomic one.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;          // Per power of two
+    private static final int LINEAR_LIMIT = 2 * SUB_BUCKETS;               // Values below are exact
+    private static final long MAX_VALUE = (1L << 40) - 1;                  // Longer durations are clamped
+    private static final int BUCKET_COUNT = bucketIndex(MAX_VALUE) + 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private volatile long count = 0;    // Only written by the recording thread
+    private volatile long total = 0;
+    private volatile long max = 0;
+
+    /**
+     * Add one duration - only ever call from one thread at a time
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, Math.min(MAX_VALUE, nanos));
+        int index = bucketIndex(value);
+        counts.setRelease(index, counts.getPlain(index) + 1);
+        total += value;
+        if (value > max) {
+            max = value;
+        }
+        count++;
+    }
+
+    /**
+     * Number of durations recorded
+     */
+    public long getCount() {
+        return count;
+    }
+
+    public long getMaxNanos() {
+        return max;
+    }
+
+    public double getMeanNanos() {
+        long n = count;
+        return n > 0 ? (double) total / n : 0;
+    }
+
+    /**
+     * Duration that the given percentage (0..100) of recordings did not exceed, 0 if empty
+     * Reported as the top of the bucket it falls in, never above the maximum
+     */
+    public long getPercentileNanos(double percentile) {
+        long n = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            n += counts.get(i);
+        }
+        if (n == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * n));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(bucketTop(i), max);
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Forget everything recorded - durations recorded at the same moment may be lost
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts.set(i, 0);
+        }
+        count = 0;
+        total = 0;
+        max = 0;
+    }
+
+    /**
+     * Bucket of a value: exact below LINEAR_LIMIT, then SUB_BUCKETS per power of two
+     */
+    private static int bucketIndex(long value) {
+        if (value < LINEAR_LIMIT) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) (value >> shift) - SUB_BUCKETS;
+    }
+
+    /**
+     * Largest value that falls into a bucket
+     */
+    private static long bucketTop(int index) {
+        if (index < LINEAR_LIMIT) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        long bottom = (long) (index % SUB_BUCKETS + SUB_BUCKETS) << shift;
+        return bottom + (1L << shift) - 1;
+    }
+}
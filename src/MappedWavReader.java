@@ -0,0 +1,199 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Streams 16-bit PCM WAV files straight out of a memory mapping
+ * Samples are decoded from a little-endian short view of the mapped data chunk into the caller's
+ * AudioFrame, so no byte[] copy is made and heap use doesn't grow with the file. Files larger than
+ * one mapping are mapped in segments as reading reaches them.
+ */
+public class MappedWavReader implements Closeable {
+
+    private static final int WAVE_FORMAT_PCM = 1;
+    private static final int WAVE_FORMAT_EXTENSIBLE = 0xFFFE;
+    private static final long SEGMENT_BYTES = 1L << 30; // Mapped at a time, a whole number of frames
+
+    private final FileChannel channel;
+    private final float sampleRate;
+    private final int channels;
+    private final long dataOffset;
+    private final long frameCount;
+    private final long segmentFrames;
+
+    private ShortBuffer segment;          // View of the current mapping
+    private long segmentStart;            // First frame in the current mapping
+    private long position;                // Next frame to read
+
+    /**
+     * Open a WAV file and parse its header
+     *
+     * @throws IllegalArgumentException if the file isn't 16-bit PCM WAV
+     */
+    public MappedWavReader(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(12).order(ByteOrder.LITTLE_ENDIAN);
+            readFully(header, 0);
+            if (header.getInt(0) != 0x46464952 || header.getInt(8) != 0x45564157) { // "RIFF", "WAVE"
+                throw new IllegalArgumentException("Not a WAV file: " + file);
+            }
+
+            // Walk the chunks until the data chunk, picking up the format on the way
+            ByteBuffer chunk = ByteBuffer.allocate(24).order(ByteOrder.LITTLE_ENDIAN);
+            long offset = 12;
+            int format = -1;
+            int bits = 0;
+            int channelCount = 0;
+            float rate = 0;
+            long dataStart = -1;
+            long dataSize = 0;
+            while (dataStart < 0) {
+                chunk.clear().limit(8);
+                if (!readFully(chunk, offset)) {
+                    throw new IllegalArgumentException("No data chunk in " + file);
+                }
+                int id = chunk.getInt(0);
+                long size = chunk.getInt(4) & 0xFFFFFFFFL;
+                if (id == 0x20746D66) { // "fmt "
+                    chunk.clear().limit((int) Math.min(24, size));
+                    if (size < 16 || !readFully(chunk, offset + 8)) {
+                        throw new IllegalArgumentException("Malformed fmt chunk: " + file);
+                    }
+                    format = chunk.getShort(0) & 0xFFFF;
+                    channelCount = chunk.getShort(2) & 0xFFFF;
+                    rate = chunk.getInt(4);
+                    bits = chunk.getShort(14) & 0xFFFF;
+                    if (format == WAVE_FORMAT_EXTENSIBLE && size >= 26) {
+                        ByteBuffer subFormat = ByteBuffer.allocate(2).order(ByteOrder.LITTLE_ENDIAN);
+                        if (!readFully(subFormat, offset + 8 + 24)) {
+                            throw new IllegalArgumentException("Malformed fmt chunk: " + file);
+                        }
+                        format = subFormat.getShort(0) & 0xFFFF;
+                    }
+                } else if (id == 0x61746164) { // "data"
+                    dataStart = offset + 8;
+                    dataSize = size;
+                }
+                offset += 8 + size + (size & 1); // Chunks are padded to even sizes
+            }
+            if (format != WAVE_FORMAT_PCM || bits != 16 || channelCount < 1) {
+                throw new IllegalArgumentException("Only 16-bit PCM WAV can be mapped: " + file);
+            }
+
+            sampleRate = rate;
+            channels = channelCount;
+            dataOffset = dataStart;
+            // Streams written without knowing their length leave the size at 0 or 0xFFFFFFFF
+            long available = channel.size() - dataOffset;
+            long dataBytes = dataSize == 0 || dataSize == 0xFFFFFFFFL ? available : Math.min(dataSize, available);
+            frameCount = dataBytes / (2L * channels);
+            segmentFrames = SEGMENT_BYTES / (2L * channels);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * True if the file looks like something this reader can map
+     */
+    public static boolean isWavFile(Path file) {
+        String name = file.getFileName().toString().toLowerCase(java.util.Locale.ROOT);
+        return name.endsWith(".wav") || name.endsWith(".wave");
+    }
+
+    public float getSampleRate() {
+        return sampleRate;
+    }
+
+    public int getChannels() {
+        return channels;
+    }
+
+    /**
+     * Total number of sample frames in the data chunk
+     */
+    public long getFrameCount() {
+        return frameCount;
+    }
+
+    /**
+     * Number of sample frames already read
+     */
+    public long getPosition() {
+        return position;
+    }
+
+    /**
+     * Decode up to count frames of the first channel into frame, filling its level statistics
+     * Returns the number of samples written, 0 at the end of the data
+     */
+    public int read(AudioFrame frame, int count) throws IOException {
+        double[] samples = frame.getSamples();
+        int total = (int) Math.min(Math.min(count, samples.length), frameCount - position);
+
+        double absSum = 0;
+        double squareSum = 0;
+        double peak = 0;
+
+        for (int i = 0; i < total; i++, position++) {
+            if (segment == null || position >= segmentStart + segmentFrames) {
+                mapSegment(position);
+            }
+            double value = segment.get((int) ((position - segmentStart) * channels)) / 32768.0;
+
+            samples[i] = value;
+            double magnitude = Math.abs(value);
+            absSum += magnitude;
+            squareSum += value * value;
+            if (magnitude > peak) {
+                peak = magnitude;
+            }
+        }
+
+        if (total > 0) {
+            frame.update(total, absSum / total, Math.sqrt(squareSum / total), peak);
+        } else {
+            frame.update(0, 0, 0, 0);
+        }
+        return total;
+    }
+
+    @Override
+    public void close() throws IOException {
+        segment = null;
+        channel.close();
+    }
+
+    /**
+     * Map the segment holding the given frame
+     */
+    private void mapSegment(long frame) throws IOException {
+        segmentStart = frame - frame % segmentFrames;
+        long frames = Math.min(segmentFrames, frameCount - segmentStart);
+        MappedByteBuffer mapping = channel.map(FileChannel.MapMode.READ_ONLY,
+                dataOffset + segmentStart * 2L * channels, frames * 2L * channels);
+        segment = mapping.order(ByteOrder.LITTLE_ENDIAN).asShortBuffer();
+    }
+
+    /**
+     * Fill the buffer from the given file offset, false if the file ends first
+     */
+    private boolean readFully(ByteBuffer buffer, long offset) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, offset);
+            if (read < 0) {
+                return false;
+            }
+            offset += read;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,94 @@
+/**
+ * McLeod Pitch Method detector (normalized square difference function)
+ * Takes the first key maximum close to the highest one, so it rarely jumps an octave
+ */
+public class McLeodDetector implements PitchDetector {
+
+    private static final double PEAK_RATIO = 0.9;  // Key maxima within 90% of the best are candidates
+    private static final double MIN_CLARITY = 0.5; // Below this the frame is treated as noise
+
+    private final double sampleRate;
+    private final int minPeriod;
+    private final int maxPeriod;
+
+    private final FftAutocorrelation autocorrelation = new FftAutocorrelation(4096);
+    private final double[] nsdf;
+
+    /**
+     * Create a detector for the given frequency range
+     */
+    public McLeodDetector(double sampleRate, double minFrequency, double maxFrequency) {
+        this.sampleRate = sampleRate;
+        this.minPeriod = (int) (sampleRate / maxFrequency);
+        this.maxPeriod = (int) (sampleRate / minFrequency);
+        this.nsdf = new double[maxPeriod + 2];
+    }
+
+    @Override
+    public String getName() {
+        return "McLeod (MPM)";
+    }
+
+    @Override
+    public boolean detect(double[] samples, int length, PitchResult result) {
+        int lastPeriod = Math.min(maxPeriod + 1, length / 2);
+        double[] correlation = autocorrelation.compute(samples, length);
+
+        // NSDF: 2 r(tau) / m(tau), with m(tau) updated incrementally
+        double m = 2 * correlation[0];
+        nsdf[0] = m > 0 ? 1 : 0;
+        for (int tau = 1; tau <= lastPeriod; tau++) {
+            double head = samples[tau - 1];
+            double tail = samples[length - tau];
+            m -= head * head + tail * tail;
+            nsdf[tau] = m > 0 ? 2 * correlation[tau] / m : 0;
+        }
+
+        // Collect key maxima: the highest point between each positive and negative zero crossing
+        double highest = 0;
+        int firstCandidate = -1;
+        for (int pass = 0; pass < 2; pass++) {
+            int tau = 1;
+            while (tau <= lastPeriod && nsdf[tau] > 0) {
+                tau++; // Skip the lobe around lag zero
+            }
+
+            while (tau <= lastPeriod) {
+                while (tau <= lastPeriod && nsdf[tau] <= 0) {
+                    tau++;
+                }
+                int peak = -1;
+                while (tau <= lastPeriod && nsdf[tau] > 0) {
+                    if (tau >= minPeriod && tau <= maxPeriod && (peak < 0 || nsdf[tau] > nsdf[peak])) {
+                        peak = tau;
+                    }
+                    tau++;
+                }
+                if (peak < 0) {
+                    continue;
+                }
+
+                if (pass == 0) {
+                    highest = Math.max(highest, nsdf[peak]);
+                } else if (nsdf[peak] >= PEAK_RATIO * highest) {
+                    firstCandidate = peak;
+                    break;
+                }
+            }
+        }
+
+        if (firstCandidate > 0 && nsdf[firstCandidate] >= MIN_CLARITY) {
+            // Refine the key maximum to a fractional period
+            double left = nsdf[firstCandidate - 1];
+            double center = nsdf[firstCandidate];
+            double right = firstCandidate + 1 <= lastPeriod ? nsdf[firstCandidate + 1] : center;
+            double offset = PeakInterpolation.parabolicOffset(left, center, right);
+            double clarity = Math.min(1, PeakInterpolation.parabolicValue(left, center, right, offset));
+            result.set(sampleRate / (firstCandidate + offset), clarity);
+            return true;
+        }
+
+        result.clear();
+        return false;
+    }
+}
@@ -0,0 +1,53 @@
+import javax.sound.sampled.*;
+import java.io.IOException;
+
+/**
+ * Live audio from the default capture device
+ */
+public class MicrophoneSource implements AudioSource {
+
+    private final AudioFormat format;
+    private final TargetDataLine line;
+
+    /**
+     * Find a capture line for the format
+     *
+     * @throws LineUnavailableException if no microphone supports it
+     */
+    public MicrophoneSource(AudioFormat format) throws LineUnavailableException {
+        this.format = format;
+        DataLine.Info info = new DataLine.Info(TargetDataLine.class, format);
+        this.line = (TargetDataLine) AudioSystem.getLine(info);
+    }
+
+    @Override
+    public AudioFormat getFormat() {
+        return format;
+    }
+
+    @Override
+    public void start() throws IOException {
+        try {
+            line.open(format);
+            line.start();
+        } catch (LineUnavailableException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Blocks until a full buffer has been captured - this sets the analysis cadence
+     */
+    @Override
+    public int read(byte[] buffer, int offset, int length) {
+        return line.isOpen() ? line.read(buffer, offset, length) : -1;
+    }
+
+    @Override
+    public void close() {
+        if (line.isOpen()) {
+            line.stop();
+            line.close();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+/**
+ * Equal-tempered note table for chromatic tuning
+ * Frequencies and their base-2 logarithms are precomputed, so finding the nearest
+ * note is one log and a rounding instead of a scan over the table
+ */
+public class NoteTable {
+
+    public static final double A4_FREQUENCY = 440.0;
+    private static final int A4_MIDI = 69;
+    private static final String[] PITCH_CLASSES = {"C", "C#", "D", "D#", "E", "F", "F#", "G", "G#", "A", "A#", "B"};
+    private static final double INV_LN2 = 1.0 / Math.log(2);
+
+    private final int firstMidi;
+    private final double[] frequencies;
+    private final double[] log2Frequencies;
+    private final String[] names;
+
+    /**
+     * Create a table from firstMidi to lastMidi (inclusive), e.g. 28..88 for E1..E6
+     */
+    public NoteTable(int firstMidi, int lastMidi) {
+        if (lastMidi < firstMidi) {
+            throw new IllegalArgumentException("Empty note range: " + firstMidi + ".." + lastMidi);
+        }
+        this.firstMidi = firstMidi;
+        int count = lastMidi - firstMidi + 1;
+        frequencies = new double[count];
+        log2Frequencies = new double[count];
+        names = new String[count];
+
+        double log2A4 = Math.log(A4_FREQUENCY) * INV_LN2;
+        for (int i = 0; i < count; i++) {
+            int midi = firstMidi + i;
+            log2Frequencies[i] = log2A4 + (midi - A4_MIDI) / 12.0;
+            frequencies[i] = Math.pow(2, log2Frequencies[i]);
+            names[i] = PITCH_CLASSES[Math.floorMod(midi, 12)] + (Math.floorDiv(midi, 12) - 1);
+        }
+    }
+
+    /**
+     * E1 (41.2 Hz) to E6 (1318.5 Hz) - covers bass, 7-string and alternate guitar tunings
+     */
+    public static NoteTable bassToHighE() {
+        return new NoteTable(28, 88);
+    }
+
+    public int size() {
+        return frequencies.length;
+    }
+
+    /**
+     * Index of the nearest note, or -1 if the frequency is more than half a semitone outside the table
+     */
+    public int nearestNote(double frequency) {
+        if (frequency <= 0) {
+            return -1;
+        }
+        double semitones = 12 * (Math.log(frequency) * INV_LN2 - log2Frequencies[0]);
+        int index = (int) Math.floor(semitones + 0.5);
+        return index >= 0 && index < frequencies.length ? index : -1;
+    }
+
+    /**
+     * Deviation of frequency from a note in cents (positive is sharp)
+     */
+    public double centsFrom(int index, double frequency) {
+        return 1200 * (Math.log(frequency) * INV_LN2 - log2Frequencies[index]);
+    }
+
+    public double getFrequency(int index) {
+        return frequencies[index];
+    }
+
+    /**
+     * Note name with octave, e.g. "F#2"
+     */
+    public String getName(int index) {
+        return names[index];
+    }
+
+    /**
+     * Note name without octave, e.g. "F#"
+     */
+    public String getPitchClass(int index) {
+        return PITCH_CLASSES[Math.floorMod(firstMidi + index, 12)];
+    }
+
+    /**
+     * Position in the octave, 0 for C up to 11 for B
+     */
+    public int getPitchClassIndex(int index) {
+        return Math.floorMod(firstMidi + index, 12);
+    }
+}
@@ -0,0 +1,233 @@
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.UnsupportedAudioFileException;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Headless entry point - runs audio files through the tuner pipeline and writes the pitch track
+ * No display or sound card needed, e.g.
+ *   java OfflineAnalyzer --format json --output takes.json take1.wav take2.aiff
+ * The detector and window settings are the same -Dtuner.* properties the tuner uses.
+ * The binary format holds one recording and needs --output; read it back with PitchTrackReader.
+ * With -Dtuner.statsLog set, each recording's stage latencies and frame counts go to stderr.
+ */
+public class OfflineAnalyzer {
+
+    private static final String USAGE =
+            "Usage: java OfflineAnalyzer [--format csv|json|binary] [--mode guitar|chromatic] [--output <file>] <audio file>...";
+
+    private final TunerMode mode;
+
+    // Reused from file to file - the pipeline is only rebuilt when the sample rate changes
+    private TunerPipeline pipeline;
+    private byte[] buffer = new byte[0];
+    private final AudioFrame hopFrame = new AudioFrame(TunerPipeline.HOP_SIZE);
+
+    /**
+     * Create an analyzer for one thread - analyze calls must not overlap
+     */
+    public OfflineAnalyzer(TunerMode mode) {
+        this.mode = mode;
+    }
+
+    /**
+     * Run the pipeline over one audio file and write an entry per hop
+     * Returns the number of sample frames analyzed
+     */
+    public long analyze(File file, PitchTrackWriter writer) throws IOException, UnsupportedAudioFileException {
+        // 16-bit WAV is read straight from a memory mapping, everything else through Java Sound
+        if (MappedWavReader.isWavFile(file.toPath())) {
+            MappedWavReader reader;
+            try {
+                reader = new MappedWavReader(file.toPath());
+            } catch (IllegalArgumentException e) {
+                reader = null;
+            }
+            if (reader != null) {
+                try (MappedWavReader mapped = reader) {
+                    return analyzeMapped(file, mapped, writer);
+                }
+            }
+        }
+
+        try (AudioFileSource source = new AudioFileSource(file, false)) {
+            return analyze(source, file.getName(), writer);
+        }
+    }
+
+    /**
+     * Run the pipeline over everything a source delivers until it ends, writing an entry per hop
+     * Returns the number of sample frames analyzed
+     */
+    public long analyze(AudioSource source, String name, PitchTrackWriter writer) throws IOException {
+        AudioFormat format = source.getFormat();
+        PcmDecoder decoder = new PcmDecoder(format);
+        preparePipeline(format.getSampleRate());
+        int hopBytes = TunerPipeline.HOP_SIZE * decoder.getFrameBytes();
+        if (buffer.length != hopBytes) {
+            buffer = new byte[hopBytes];
+        }
+
+        PipelineStats stats = pipeline.getStats();
+        source.start();
+        writer.beginFile(name, format.getSampleRate());
+        long frames = 0;
+        try {
+            int bytesRead;
+            while ((bytesRead = source.read(buffer, 0, buffer.length)) > 0) {
+                long decodeStart = System.nanoTime();
+                frames += decoder.decode(buffer, bytesRead, hopFrame);
+                stats.record(PipelineStats.Stage.DECODE, System.nanoTime() - decodeStart);
+                DetectionSnapshot snapshot = pipeline.process(hopFrame, mode);
+                long publishStart = System.nanoTime();
+                writer.write(frames / format.getSampleRate(), snapshot);
+                stats.record(PipelineStats.Stage.PUBLISH, System.nanoTime() - publishStart);
+            }
+        } finally {
+            // Keeps the output well-formed even if the source is cut short
+            writer.endFile();
+            source.close();
+        }
+        return frames;
+    }
+
+    /**
+     * Run the pipeline over a mapped WAV file - hops are decoded from the mapping without a byte[] copy
+     */
+    private long analyzeMapped(File file, MappedWavReader reader, PitchTrackWriter writer) throws IOException {
+        preparePipeline(reader.getSampleRate());
+
+        PipelineStats stats = pipeline.getStats();
+        writer.beginFile(file.getName(), reader.getSampleRate());
+        try {
+            long decodeStart = System.nanoTime();
+            while (reader.read(hopFrame, TunerPipeline.HOP_SIZE) > 0) {
+                stats.record(PipelineStats.Stage.DECODE, System.nanoTime() - decodeStart);
+                DetectionSnapshot snapshot = pipeline.process(hopFrame, mode);
+                long publishStart = System.nanoTime();
+                writer.write(reader.getPosition() / reader.getSampleRate(), snapshot);
+                decodeStart = System.nanoTime();
+                stats.record(PipelineStats.Stage.PUBLISH, decodeStart - publishStart);
+            }
+        } finally {
+            writer.endFile();
+        }
+        return reader.getPosition();
+    }
+
+    /**
+     * Stage latencies and frame counts of the last recording analyzed, null before the first
+     */
+    public PipelineStats getStats() {
+        return pipeline != null ? pipeline.getStats() : null;
+    }
+
+    /**
+     * Reuse the pipeline for a new file, only rebuilding it when the sample rate changes
+     */
+    private void preparePipeline(float sampleRate) {
+        if (pipeline == null || pipeline.getSampleRate() != sampleRate) {
+            pipeline = new TunerPipeline(sampleRate);
+        } else {
+            pipeline.clear();
+            pipeline.getStats().resetStatistics();
+        }
+    }
+
+    /**
+     * True for the track formats the analyzers can write
+     */
+    static boolean isKnownFormat(String format) {
+        return format.equals("csv") || format.equals("json") || format.equals("binary");
+    }
+
+    /**
+     * File extension for tracks in the given format
+     */
+    static String extensionFor(String format) {
+        return format.equals("binary") ? "ptrk" : format;
+    }
+
+    /**
+     * Open a track writer - text formats go to standard output when output is null
+     */
+    static PitchTrackWriter openWriter(String format, Path output) throws IOException {
+        if (format.equals("binary")) {
+            return new BinaryTrackWriter(output, TunerPipeline.HOP_SIZE);
+        }
+        Writer out = new BufferedWriter(output != null
+                ? Files.newBufferedWriter(output, StandardCharsets.UTF_8)
+                : new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+        return format.equals("json") ? new JsonTrackWriter(out) : new CsvTrackWriter(out);
+    }
+
+    /**
+     * Command line entry point
+     */
+    public static void main(String[] args) {
+        String format = "csv";
+        TunerMode mode = TunerMode.GUITAR;
+        String output = null;
+        int first = 0;
+
+        // Options come before the file names
+        while (first < args.length && args[first].startsWith("--")) {
+            String option = args[first];
+            if (first + 1 >= args.length) {
+                System.err.println("Missing value for " + option);
+                System.err.println(USAGE);
+                System.exit(2);
+            }
+            String value = args[first + 1];
+            switch (option) {
+                case "--format" -> format = value.toLowerCase();
+                case "--mode" -> mode = TunerMode.fromName(value);
+                case "--output" -> output = value;
+                default -> {
+                    System.err.println("Unknown option: " + option);
+                    System.err.println(USAGE);
+                    System.exit(2);
+                }
+            }
+            first += 2;
+        }
+        if (first >= args.length || !isKnownFormat(format)) {
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+        if (format.equals("binary") && (output == null || args.length - first > 1)) {
+            System.err.println("The binary format needs --output and a single recording");
+            System.exit(2);
+        }
+        if (mode == TunerMode.STRUM) {
+            System.err.println("Strum mode has no single-pitch track - use guitar or chromatic");
+            System.exit(2);
+        }
+
+        OfflineAnalyzer analyzer = new OfflineAnalyzer(mode);
+        int failures = 0;
+        try (PitchTrackWriter writer = openWriter(format, output != null ? Path.of(output) : null)) {
+
+            for (int i = first; i < args.length; i++) {
+                try {
+                    analyzer.analyze(new File(args[i]), writer);
+                    if (PipelineStats.LOG_INTERVAL_NANOS > 0) {
+                        System.err.println(args[i] + ": " + analyzer.getStats().getSummary());
+                    }
+                } catch (UnsupportedAudioFileException | IllegalArgumentException e) {
+                    System.err.println("Skipping " + args[i] + ": " + e.getMessage());
+                    failures++;
+                } catch (IOException e) {
+                    System.err.println("Cannot read " + args[i] + ": " + e.getMessage());
+                    failures++;
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Cannot write output: " + e.getMessage());
+            System.exit(1);
+        }
+        System.exit(failures > 0 ? 1 : 0);
+    }
+}
@@ -0,0 +1,26 @@
+/**
+ * What a full PcmRingBuffer does when the capture side has another frame
+ */
+public enum OverflowPolicy {
+
+    /** Overwrite the oldest unread frame and count it as dropped - capture never waits */
+    DROP_OLDEST,
+
+    /** Wait for the analysis side to free a slot */
+    BLOCK;
+
+    /**
+     * Look up a policy by name (case and dashes ignored), falling back to DROP_OLDEST
+     */
+    public static OverflowPolicy fromName(String name) {
+        if (name != null) {
+            String key = name.replace("-", "_");
+            for (OverflowPolicy policy : values()) {
+                if (policy.name().equalsIgnoreCase(key)) {
+                    return policy;
+                }
+            }
+        }
+        return DROP_OLDEST;
+    }
+}
@@ -0,0 +1,79 @@
+import javax.sound.sampled.AudioFormat;
+
+/**
+ * Turns captured PCM bytes into an AudioFrame in a single pass
+ * Level statistics are gathered while decoding, so later stages never touch the raw bytes
+ */
+public class PcmDecoder {
+
+    private final int sampleBytes;   // 1 or 2 bytes per sample
+    private final int frameBytes;    // Bytes per sample frame (all channels)
+    private final boolean bigEndian;
+    private final boolean signed;
+
+    /**
+     * Create a decoder for an integer PCM format
+     * Only the first channel is decoded when the format has more than one
+     */
+    public PcmDecoder(AudioFormat format) {
+        AudioFormat.Encoding encoding = format.getEncoding();
+        if (!AudioFormat.Encoding.PCM_SIGNED.equals(encoding) && !AudioFormat.Encoding.PCM_UNSIGNED.equals(encoding)) {
+            throw new IllegalArgumentException("Unsupported encoding: " + encoding);
+        }
+        if (format.getSampleSizeInBits() != 8 && format.getSampleSizeInBits() != 16) {
+            throw new IllegalArgumentException("Unsupported sample size: " + format.getSampleSizeInBits());
+        }
+        this.sampleBytes = format.getSampleSizeInBits() / 8;
+        this.frameBytes = sampleBytes * Math.max(1, format.getChannels());
+        this.bigEndian = format.isBigEndian();
+        this.signed = AudioFormat.Encoding.PCM_SIGNED.equals(encoding);
+    }
+
+    /**
+     * Number of bytes one sample frame takes in the captured data
+     */
+    public int getFrameBytes() {
+        return frameBytes;
+    }
+
+    /**
+     * Decode length bytes of audioData into frame, filling its level statistics
+     * Decodes as many whole sample frames as fit; returns the number of samples written
+     */
+    public int decode(byte[] audioData, int length, AudioFrame frame) {
+        double[] samples = frame.getSamples();
+        int count = Math.min(length / frameBytes, samples.length);
+
+        double absSum = 0;
+        double squareSum = 0;
+        double peak = 0;
+
+        for (int i = 0, offset = 0; i < count; i++, offset += frameBytes) {
+            double value;
+            if (sampleBytes == 2) {
+                int low = audioData[bigEndian ? offset + 1 : offset] & 0xFF;
+                int high = audioData[bigEndian ? offset : offset + 1];
+                int sample = signed ? (high << 8) | low : (((high & 0xFF) << 8) | low) - 32768;
+                value = sample / 32768.0;
+            } else {
+                int sample = signed ? audioData[offset] : (audioData[offset] & 0xFF) - 128;
+                value = sample / 128.0;
+            }
+
+            samples[i] = value;
+            double magnitude = Math.abs(value);
+            absSum += magnitude;
+            squareSum += value * value;
+            if (magnitude > peak) {
+                peak = magnitude;
+            }
+        }
+
+        if (count > 0) {
+            frame.update(count, absSum / count, Math.sqrt(squareSum / count), peak);
+        } else {
+            frame.update(0, 0, 0, 0);
+        }
+        return count;
+    }
+}
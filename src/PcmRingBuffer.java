@@ -0,0 +1,172 @@
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Lock-free single-producer/single-consumer ring of PCM frames
+ * All slots are allocated up front; the capture thread fills a slot in place and publishes it,
+ * the analysis thread copies it out. Exactly one thread may produce and one may consume.
+ */
+public class PcmRingBuffer {
+
+    private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final byte[][] slots;
+    private final int[] lengths;
+    private final OverflowPolicy policy;
+
+    // Sequence numbers - head is the next frame to read, tail the next to write
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+
+    private volatile long droppedFrames = 0;   // Only written by the producer
+    private volatile boolean closed = false;
+
+    private volatile Thread waitingConsumer;
+    private volatile Thread waitingProducer;
+
+    /**
+     * Create a ring of capacity slots, each holding up to slotBytes bytes
+     */
+    public PcmRingBuffer(int capacity, int slotBytes, OverflowPolicy policy) {
+        if (capacity < 2) {
+            throw new IllegalArgumentException("Ring needs at least 2 slots: " + capacity);
+        }
+        this.slots = new byte[capacity][slotBytes];
+        this.lengths = new int[capacity];
+        this.policy = policy;
+    }
+
+    /**
+     * Producer: get the slot to fill with the next frame
+     * Makes room first according to the overflow policy; returns null once the ring is closed
+     */
+    public byte[] claim() {
+        long t = tail.get();
+        while (t - head.get() >= slots.length) {
+            if (closed) {
+                return null;
+            }
+            if (policy == OverflowPolicy.DROP_OLDEST) {
+                long h = head.get();
+                // The consumer may be reading this slot - its own CAS on head will fail and it retries
+                if (t - h >= slots.length && head.compareAndSet(h, h + 1)) {
+                    droppedFrames++;
+                }
+            } else {
+                waitingProducer = Thread.currentThread();
+                if (t - head.get() >= slots.length && !closed) {
+                    LockSupport.parkNanos(this, MAX_PARK_NANOS);
+                }
+                waitingProducer = null;
+            }
+        }
+        return closed ? null : slots[(int) (t % slots.length)];
+    }
+
+    /**
+     * Producer: make the slot returned by claim() visible to the consumer
+     */
+    public void publish(int length) {
+        long t = tail.get();
+        lengths[(int) (t % slots.length)] = length;
+        tail.set(t + 1);
+
+        Thread consumer = waitingConsumer;
+        if (consumer != null) {
+            LockSupport.unpark(consumer);
+        }
+    }
+
+    /**
+     * Consumer: copy the oldest frame into dest without waiting
+     * Returns its length in bytes, or -1 if the ring is empty
+     */
+    public int poll(byte[] dest) {
+        while (true) {
+            long h = head.get();
+            if (h == tail.get()) {
+                return -1;
+            }
+            int slot = (int) (h % slots.length);
+            int length = Math.min(lengths[slot], dest.length);
+            System.arraycopy(slots[slot], 0, dest, 0, length);
+
+            // Only keep the copy if the producer didn't drop this frame while we read it
+            if (head.compareAndSet(h, h + 1)) {
+                Thread producer = waitingProducer;
+                if (producer != null) {
+                    LockSupport.unpark(producer);
+                }
+                return length;
+            }
+        }
+    }
+
+    /**
+     * Consumer: copy the oldest frame into dest, waiting for one if needed
+     * Returns its length in bytes, or -1 once the ring is closed and drained
+     */
+    public int take(byte[] dest) throws InterruptedException {
+        while (true) {
+            int length = poll(dest);
+            if (length >= 0) {
+                return length;
+            }
+            if (closed) {
+                return -1;
+            }
+
+            waitingConsumer = Thread.currentThread();
+            if (head.get() == tail.get() && !closed) {
+                LockSupport.parkNanos(this, MAX_PARK_NANOS);
+            }
+            waitingConsumer = null;
+
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+    }
+
+    /**
+     * Stop both sides - claim() returns null and take() returns -1 once drained
+     */
+    public void close() {
+        closed = true;
+        Thread consumer = waitingConsumer;
+        if (consumer != null) {
+            LockSupport.unpark(consumer);
+        }
+        Thread producer = waitingProducer;
+        if (producer != null) {
+            LockSupport.unpark(producer);
+        }
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Frames overwritten before the consumer got to them
+     */
+    public long getDroppedFrames() {
+        return droppedFrames;
+    }
+
+    /**
+     * Frames waiting to be read
+     */
+    public int size() {
+        return (int) Math.max(0, tail.get() - head.get());
+    }
+
+    public int capacity() {
+        return slots.length;
+    }
+
+    public int slotBytes() {
+        return slots[0].length;
+    }
+}
@@ -0,0 +1,30 @@
+/**
+ * Sub-sample refinement of a peak (or dip) found on an integer lag grid
+ * Fits a curve through the best lag and its two neighbours and returns how far
+ * the true extremum sits from the best lag, between -0.5 and +0.5
+ */
+public final class PeakInterpolation {
+
+    private PeakInterpolation() {
+    }
+
+    /**
+     * Vertex of the parabola through (-1, left), (0, center), (1, right)
+     * Works for maxima and minima alike
+     */
+    public static double parabolicOffset(double left, double center, double right) {
+        double denominator = left - 2 * center + right;
+        if (denominator == 0) {
+            return 0;
+        }
+        double offset = 0.5 * (left - right) / denominator;
+        return Math.max(-0.5, Math.min(0.5, offset));
+    }
+
+    /**
+     * Height of the parabola through the three points at the given offset
+     */
+    public static double parabolicValue(double left, double center, double right, double offset) {
+        return center + 0.25 * (right - left) * offset;
+    }
+}
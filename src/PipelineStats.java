@@ -0,0 +1,216 @@
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.beans.ConstructorProperties;
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+
+/**
+ * Per-stage latencies and frame counters of one tuner pipeline
+ * The analysis thread records every hop; the UI, logs and JMX monitors read the same numbers
+ * while it runs. Recording never allocates.
+ */
+public class PipelineStats implements PipelineStatsMXBean {
+
+    // Print the summary every few seconds with -Dtuner.statsLog=<seconds>, off by default
+    private static final String LOG_PROPERTY = "tuner.statsLog";
+    static final long LOG_INTERVAL_NANOS = (long) (Double.parseDouble(System.getProperty(LOG_PROPERTY, "0")) * 1e9);
+
+    private static final String OBJECT_NAME = "GuitarStringApp:type=PipelineStats";
+
+    /**
+     * Steps a hop goes through, in order
+     */
+    public enum Stage {
+        DECODE("decode"),        // PCM bytes to samples and level
+        WINDOW("window"),        // Sliding window update and copies for the detector
+        DETECT("detect"),        // Pitch detector or strum analysis
+        STABILIZE("stabilize"),  // String or note matching, stability tracking and the snapshot
+        PUBLISH("publish");      // Handing the snapshot to the display or track writer
+
+        private final String key;
+
+        Stage(String key) {
+            this.key = key;
+        }
+
+        public String getKey() {
+            return key;
+        }
+    }
+
+    /**
+     * Latency percentiles of one stage in microseconds, as shown to monitors
+     */
+    public static class StageLatency {
+
+        private final String stage;
+        private final long count;
+        private final double p50Micros;
+        private final double p99Micros;
+        private final double p999Micros;
+        private final double maxMicros;
+
+        @ConstructorProperties({"stage", "count", "p50Micros", "p99Micros", "p999Micros", "maxMicros"})
+        public StageLatency(String stage, long count, double p50Micros, double p99Micros, double p999Micros,
+                            double maxMicros) {
+            this.stage = stage;
+            this.count = count;
+            this.p50Micros = p50Micros;
+            this.p99Micros = p99Micros;
+            this.p999Micros = p999Micros;
+            this.maxMicros = maxMicros;
+        }
+
+        public String getStage() {
+            return stage;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public double getP50Micros() {
+            return p50Micros;
+        }
+
+        public double getP99Micros() {
+            return p99Micros;
+        }
+
+        public double getP999Micros() {
+            return p999Micros;
+        }
+
+        public double getMaxMicros() {
+            return maxMicros;
+        }
+    }
+
+    private final LatencyHistogram[] latencies = new LatencyHistogram[Stage.values().length];
+
+    // Only written by the analysis thread
+    private volatile long framesAnalyzed = 0;
+    private volatile long framesSilent = 0;
+    private volatile long framesDropped = 0;
+
+    public PipelineStats() {
+        for (int i = 0; i < latencies.length; i++) {
+            latencies[i] = new LatencyHistogram();
+        }
+    }
+
+    /**
+     * Add the time one hop spent in a stage
+     */
+    public void record(Stage stage, long nanos) {
+        latencies[stage.ordinal()].record(nanos);
+    }
+
+    /**
+     * A hop went through pitch detection or strum analysis
+     */
+    void countAnalyzed() {
+        framesAnalyzed++;
+    }
+
+    /**
+     * A hop was too quiet to analyze
+     */
+    void countSilent() {
+        framesSilent++;
+    }
+
+    /**
+     * Hops lost before analysis, e.g. overwritten in the capture ring
+     */
+    public void countDropped(long frames) {
+        framesDropped += frames;
+    }
+
+    public LatencyHistogram getLatency(Stage stage) {
+        return latencies[stage.ordinal()];
+    }
+
+    @Override
+    public long getFramesAnalyzed() {
+        return framesAnalyzed;
+    }
+
+    @Override
+    public long getFramesSilent() {
+        return framesSilent;
+    }
+
+    @Override
+    public long getFramesDropped() {
+        return framesDropped;
+    }
+
+    /**
+     * Current percentiles of one stage
+     */
+    public StageLatency getStageLatency(Stage stage) {
+        LatencyHistogram histogram = latencies[stage.ordinal()];
+        return new StageLatency(stage.getKey(), histogram.getCount(),
+                histogram.getPercentileNanos(50) / 1000.0, histogram.getPercentileNanos(99) / 1000.0,
+                histogram.getPercentileNanos(99.9) / 1000.0, histogram.getMaxNanos() / 1000.0);
+    }
+
+    @Override
+    public StageLatency[] getStageLatencies() {
+        Stage[] stages = Stage.values();
+        StageLatency[] result = new StageLatency[stages.length];
+        for (int i = 0; i < stages.length; i++) {
+            result[i] = getStageLatency(stages[i]);
+        }
+        return result;
+    }
+
+    @Override
+    public String getSummary() {
+        StringBuilder summary = new StringBuilder(String.format(Locale.ROOT,
+                "frames analyzed %d, silent %d, dropped %d", framesAnalyzed, framesSilent, framesDropped));
+        for (StageLatency latency : getStageLatencies()) {
+            if (latency.getCount() > 0) {
+                summary.append(String.format(Locale.ROOT, "; %s p50 %.1f p99 %.1f p999 %.1f max %.1f us",
+                        latency.getStage(), latency.getP50Micros(), latency.getP99Micros(),
+                        latency.getP999Micros(), latency.getMaxMicros()));
+            }
+        }
+        return summary.toString();
+    }
+
+    /**
+     * Start counting from zero - hops recorded at the same moment may be lost
+     */
+    @Override
+    public void resetStatistics() {
+        for (LatencyHistogram histogram : latencies) {
+            histogram.reset();
+        }
+        framesAnalyzed = 0;
+        framesSilent = 0;
+        framesDropped = 0;
+    }
+
+    /**
+     * Make these statistics visible to JMX monitors, replacing any registered before
+     */
+    public void registerMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            try {
+                server.registerMBean(this, name);
+            } catch (InstanceAlreadyExistsException e) {
+                server.unregisterMBean(name);
+                server.registerMBean(this, name);
+            }
+        } catch (JMException e) {
+            System.err.println("Cannot register pipeline statistics: " + e.getMessage());
+        }
+    }
+
+}
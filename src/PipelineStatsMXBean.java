@@ -0,0 +1,22 @@
+/**
+ * Management interface of PipelineStats, for JConsole, VisualVM and other JMX monitors
+ * Registered as GuitarStringApp:type=PipelineStats while the tuner runs. Latencies are in
+ * microseconds, one entry per stage in PipelineStats.Stage order.
+ */
+public interface PipelineStatsMXBean {
+
+    long getFramesAnalyzed();
+
+    long getFramesSilent();
+
+    long getFramesDropped();
+
+    PipelineStats.StageLatency[] getStageLatencies();
+
+    /**
+     * One-line summary of every counter and stage
+     */
+    String getSummary();
+
+    void resetStatistics();
+}
@@ -0,0 +1,17 @@
+/**
+ * A pitch detection algorithm working on decoded sample frames
+ * Implementations keep their own work buffers, so one instance must only be used by one thread
+ */
+public interface PitchDetector {
+
+    /**
+     * Short name shown in the detector picker
+     */
+    String getName();
+
+    /**
+     * Estimate the fundamental frequency of the first length samples (range -1..1)
+     * Fills result and returns true if a clear pitch was found; the samples are not modified
+     */
+    boolean detect(double[] samples, int length, PitchResult result);
+}
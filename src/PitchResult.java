@@ -0,0 +1,39 @@
+/**
+ * Result of a single pitch estimate
+ * Mutable so the analysis thread can reuse one instance for every frame
+ */
+public class PitchResult {
+
+    private double frequency = -1;
+    private double clarity = 0;
+
+    /**
+     * Store a detected pitch
+     */
+    public void set(double frequency, double clarity) {
+        this.frequency = frequency;
+        this.clarity = clarity;
+    }
+
+    /**
+     * Mark the frame as having no clear pitch
+     */
+    public void clear() {
+        frequency = -1;
+        clarity = 0;
+    }
+
+    /**
+     * Detected frequency in Hz, or -1 if no clear pitch was found
+     */
+    public double getFrequency() {
+        return frequency;
+    }
+
+    /**
+     * How periodic the frame looked, from 0 (noise) to 1 (perfectly periodic)
+     */
+    public double getClarity() {
+        return clarity;
+    }
+}
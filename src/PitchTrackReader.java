@@ -0,0 +1,172 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+
+/**
+ * Random access to a pitch track written by BinaryTrackWriter
+ * Records are fixed-width, so any record can be read with one positional read and the
+ * record at a given time is found by binary search on the time field.
+ */
+public class PitchTrackReader implements Closeable {
+
+    private final FileChannel channel;
+    private final ByteBuffer recordBuffer = ByteBuffer.allocateDirect(BinaryTrackWriter.RECORD_BYTES)
+            .order(ByteOrder.LITTLE_ENDIAN);
+    private final TunerMode mode;
+    private final float sampleRate;
+    private final int hopSize;
+    private final long recordCount;
+
+    /**
+     * Open a track and read its header
+     *
+     * @throws IllegalArgumentException if the file isn't a pitch track
+     */
+    public PitchTrackReader(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(BinaryTrackWriter.HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining() && channel.read(header, header.position()) > 0) {
+                // Keep reading until the header is complete
+            }
+            if (header.hasRemaining() || header.getInt(0) != BinaryTrackWriter.MAGIC) {
+                throw new IllegalArgumentException("Not a pitch track: " + file);
+            }
+            if (header.getShort(4) != BinaryTrackWriter.VERSION) {
+                throw new IllegalArgumentException("Unsupported pitch track version " + header.getShort(4));
+            }
+            int modeOrdinal = header.getShort(6);
+            if (modeOrdinal < 0 || modeOrdinal >= TunerMode.values().length) {
+                throw new IllegalArgumentException("Unknown tuner mode " + modeOrdinal + " in " + file);
+            }
+            mode = TunerMode.values()[modeOrdinal];
+            sampleRate = header.getFloat(8);
+            hopSize = header.getInt(12);
+
+            // A track that was never closed has no count - use what made it to disk
+            long stored = header.getLong(16);
+            long onDisk = (channel.size() - BinaryTrackWriter.HEADER_BYTES) / BinaryTrackWriter.RECORD_BYTES;
+            recordCount = stored > 0 ? Math.min(stored, onDisk) : onDisk;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public TunerMode getMode() {
+        return mode;
+    }
+
+    public float getSampleRate() {
+        return sampleRate;
+    }
+
+    public int getHopSize() {
+        return hopSize;
+    }
+
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * Read record index into the given record
+     */
+    public void read(long index, PitchTrackRecord record) throws IOException {
+        if (index < 0 || index >= recordCount) {
+            throw new IndexOutOfBoundsException("Record " + index + " of " + recordCount);
+        }
+        recordBuffer.clear();
+        long position = BinaryTrackWriter.HEADER_BYTES + index * BinaryTrackWriter.RECORD_BYTES;
+        while (recordBuffer.hasRemaining()) {
+            if (channel.read(recordBuffer, position + recordBuffer.position()) < 0) {
+                throw new IOException("Pitch track ends inside record " + index);
+            }
+        }
+        record.set(recordBuffer.getDouble(0), recordBuffer.getFloat(8), recordBuffer.getFloat(12),
+                recordBuffer.getFloat(16), recordBuffer.getShort(20), recordBuffer.getShort(22));
+    }
+
+    /**
+     * Index of the record covering the given time - the first whose hop ends at or after it
+     * Returns the last record for times past the end, -1 for an empty track
+     */
+    public long indexAt(double timeSeconds) throws IOException {
+        long low = 0;
+        long high = recordCount - 1;
+        while (low < high) {
+            long middle = (low + high) >>> 1;
+            if (readTime(middle) < timeSeconds) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return high;
+    }
+
+    /**
+     * Read the record covering the given time, false for an empty track
+     */
+    public boolean readAt(double timeSeconds, PitchTrackRecord record) throws IOException {
+        long index = indexAt(timeSeconds);
+        if (index < 0) {
+            return false;
+        }
+        read(index, record);
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private double readTime(long index) throws IOException {
+        recordBuffer.clear().limit(8);
+        long position = BinaryTrackWriter.HEADER_BYTES + index * BinaryTrackWriter.RECORD_BYTES;
+        while (recordBuffer.hasRemaining()) {
+            if (channel.read(recordBuffer, position + recordBuffer.position()) < 0) {
+                throw new IOException("Pitch track ends inside record " + index);
+            }
+        }
+        return recordBuffer.getDouble(0);
+    }
+
+    /**
+     * Print a track as CSV, or only the record at each time given after the file name, e.g.
+     *   java PitchTrackReader take1.ptrk 12.5 90
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Usage: java PitchTrackReader <track.ptrk> [time in seconds]...");
+            System.exit(2);
+        }
+        try (PitchTrackReader reader = new PitchTrackReader(Path.of(args[0]))) {
+            PitchTrackRecord record = new PitchTrackRecord();
+            System.out.println("time,frequency,clarity,target,cents,confirmations");
+            if (args.length == 1) {
+                for (long i = 0; i < reader.getRecordCount(); i++) {
+                    reader.read(i, record);
+                    print(reader.getMode(), record);
+                }
+            }
+            for (int i = 1; i < args.length; i++) {
+                if (reader.readAt(Double.parseDouble(args[i]), record)) {
+                    print(reader.getMode(), record);
+                }
+            }
+        }
+    }
+
+    private static void print(TunerMode mode, PitchTrackRecord record) {
+        String target = record.getTargetIndex() >= 0 ? TunerPipeline.getTargetName(mode, record.getTargetIndex()) : "";
+        System.out.printf(Locale.ROOT, "%.3f,%.2f,%.2f,%s,%.1f,%d%n", record.getTime(), record.getFrequency(),
+                record.getClarity(), target, record.getCents(), record.getConfirmations());
+    }
+}
@@ -0,0 +1,64 @@
+/**
+ * One entry of a binary pitch track
+ * Mutable and reused by PitchTrackReader, like PitchResult for detectors
+ */
+public class PitchTrackRecord {
+
+    private double time;
+    private float frequency;
+    private float clarity;
+    private float cents;
+    private int targetIndex;
+    private int confirmations;
+
+    /**
+     * Position of the end of the hop in the recording, in seconds
+     */
+    public double getTime() {
+        return time;
+    }
+
+    /**
+     * Frequency detected in the hop in Hz, or -1 if none
+     */
+    public float getFrequency() {
+        return frequency;
+    }
+
+    /**
+     * How periodic the detector found the hop (0..1)
+     */
+    public float getClarity() {
+        return clarity;
+    }
+
+    /**
+     * Deviation from the locked target in cents, 0 unless the hop matched it
+     */
+    public float getCents() {
+        return cents;
+    }
+
+    /**
+     * Locked string or note table index, or -1 when nothing is locked
+     */
+    public int getTargetIndex() {
+        return targetIndex;
+    }
+
+    /**
+     * How many consistent readings back the locked target
+     */
+    public int getConfirmations() {
+        return confirmations;
+    }
+
+    void set(double time, float frequency, float clarity, float cents, int targetIndex, int confirmations) {
+        this.time = time;
+        this.frequency = frequency;
+        this.clarity = clarity;
+        this.cents = cents;
+        this.targetIndex = targetIndex;
+        this.confirmations = confirmations;
+    }
+}
@@ -0,0 +1,26 @@
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Destination for the pitch track of offline analysis - one entry per analyzed hop
+ * Calls come in the order beginFile, write..., endFile for each file, then close
+ */
+public interface PitchTrackWriter extends Closeable {
+
+    /**
+     * Start the track of a new file
+     */
+    void beginFile(String name, float sampleRate) throws IOException;
+
+    /**
+     * Write the detection state after one hop
+     *
+     * @param timeSeconds position of the end of the hop in the file
+     */
+    void write(double timeSeconds, DetectionSnapshot snapshot) throws IOException;
+
+    /**
+     * Finish the track of the current file
+     */
+    void endFile() throws IOException;
+}
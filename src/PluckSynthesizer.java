@@ -0,0 +1,196 @@
+import java.util.Random;
+
+/**
+ * Deterministic plucked-string generator (Karplus-Strong) for testing without a guitar
+ * A noise burst circulates in a tuned delay loop with an averaging filter, so it decays like a
+ * string. On top of that: detune, stiff-string inharmonicity, a noise floor and mains hum.
+ * The same seed and settings always give the same samples.
+ */
+public class PluckSynthesizer {
+
+    private static final int HUM_HARMONICS = 3;           // Mains hum has strong 2nd and 3rd harmonics
+
+    private final float sampleRate;
+    private final long seed;
+    private final Random random;
+
+    // Settings - take effect on the next pluck (noise and hum immediately)
+    private double detuneCents = 0;
+    private double inharmonicity = 0;
+    private double decaySeconds = 3.0;
+    private double amplitude = 0.5;
+    private double noiseLevel = 0;
+    private double humFrequency = 0;
+    private double humLevel = 0;
+
+    // Delay loop of the current note
+    private final double[] delayLine;
+    private int delayLength;
+    private int writeIndex;
+    private double loopGain;
+    private double previousSample;
+    private double tuningCoefficient;      // Fractional-delay allpass
+    private double tuningState;
+    private double dispersionCoefficient;  // Allpass that makes higher partials sharp
+    private double dispersionState;
+    private boolean sounding = false;
+    private double frequency = 0;
+    private long sampleIndex = 0;
+
+    /**
+     * Create a generator - strings down to minFrequency can be plucked
+     */
+    public PluckSynthesizer(float sampleRate, double minFrequency, long seed) {
+        this.sampleRate = sampleRate;
+        this.seed = seed;
+        this.random = new Random(seed);
+        this.delayLine = new double[(int) Math.ceil(sampleRate / minFrequency) + 2];
+    }
+
+    /**
+     * Offset from the plucked frequency in cents, e.g. +12 for a slightly sharp string
+     */
+    public void setDetuneCents(double detuneCents) {
+        this.detuneCents = detuneCents;
+    }
+
+    /**
+     * Stiffness of the string, 0 for ideal harmonics up to about 0.7 for strongly stretched partials
+     */
+    public void setInharmonicity(double inharmonicity) {
+        this.inharmonicity = Math.max(0, Math.min(0.9, inharmonicity));
+    }
+
+    /**
+     * Time for the fundamental to fall by 60 dB
+     */
+    public void setDecaySeconds(double decaySeconds) {
+        this.decaySeconds = decaySeconds;
+    }
+
+    /**
+     * Peak level of the pluck (0..1)
+     */
+    public void setAmplitude(double amplitude) {
+        this.amplitude = amplitude;
+    }
+
+    /**
+     * Level of the white noise floor added to everything (0 for none)
+     */
+    public void setNoiseLevel(double noiseLevel) {
+        this.noiseLevel = noiseLevel;
+    }
+
+    /**
+     * Mains hum, e.g. 50 or 60 Hz with its harmonics; a level of 0 turns it off
+     */
+    public void setHum(double frequency, double level) {
+        this.humFrequency = frequency;
+        this.humLevel = level;
+    }
+
+    /**
+     * Frequency actually sounding, the plucked frequency with the detune applied
+     */
+    public double getFrequency() {
+        return frequency;
+    }
+
+    /**
+     * Start a new note at the given frequency, replacing the one sounding
+     */
+    public void pluck(double nominalFrequency) {
+        frequency = nominalFrequency * Math.pow(2, detuneCents / 1200);
+
+        // Loop delay: averaging filter gives half a sample, the dispersion allpass its low-frequency
+        // group delay, and a second allpass tunes the rest to a fraction of a sample
+        dispersionCoefficient = -inharmonicity;
+        double dispersionDelay = (1 - dispersionCoefficient) / (1 + dispersionCoefficient);
+        double loopDelay = sampleRate / frequency - 0.5 - dispersionDelay;
+        delayLength = Math.max(2, Math.min(delayLine.length, (int) Math.floor(loopDelay - 0.1)));
+        double fraction = loopDelay - delayLength;
+        tuningCoefficient = (1 - fraction) / (1 + fraction);
+
+        loopGain = Math.pow(10, -3.0 / (decaySeconds * frequency));
+
+        // Excite with a zero-mean noise burst
+        double mean = 0;
+        for (int i = 0; i < delayLength; i++) {
+            delayLine[i] = random.nextDouble() * 2 - 1;
+            mean += delayLine[i];
+        }
+        mean /= delayLength;
+        for (int i = 0; i < delayLength; i++) {
+            delayLine[i] = (delayLine[i] - mean) * amplitude;
+        }
+        writeIndex = 0;
+        previousSample = 0;
+        tuningState = 0;
+        dispersionState = 0;
+        sounding = true;
+    }
+
+    /**
+     * Let the current note stop - only noise and hum remain
+     */
+    public void mute() {
+        sounding = false;
+    }
+
+    /**
+     * Go back to the state right after construction, keeping the settings
+     * The same calls afterwards give the same samples as the first time
+     */
+    public void reset() {
+        random.setSeed(seed);
+        sounding = false;
+        frequency = 0;
+        sampleIndex = 0;
+    }
+
+    /**
+     * Write the next count samples into dest
+     */
+    public void render(double[] dest, int count) {
+        double humStep = 2 * Math.PI * humFrequency / sampleRate;
+        for (int i = 0; i < count; i++, sampleIndex++) {
+            double value = 0;
+            if (sounding) {
+                double out = delayLine[writeIndex];
+
+                // Averaging lowpass - high partials die out faster, like a real string
+                double filtered = loopGain * 0.5 * (out + previousSample);
+                previousSample = out;
+
+                // First-order allpasses: y = c*x + s; s = x - c*y
+                double dispersed = dispersionCoefficient * filtered + dispersionState;
+                dispersionState = filtered - dispersionCoefficient * dispersed;
+                double tuned = tuningCoefficient * dispersed + tuningState;
+                tuningState = dispersed - tuningCoefficient * tuned;
+
+                delayLine[writeIndex] = tuned;
+                writeIndex = writeIndex + 1 == delayLength ? 0 : writeIndex + 1;
+                value = out;
+            }
+            if (noiseLevel > 0) {
+                value += noiseLevel * (random.nextDouble() * 2 - 1);
+            }
+            if (humLevel > 0) {
+                for (int h = 1; h <= HUM_HARMONICS; h++) {
+                    value += humLevel / h * Math.sin(humStep * h * sampleIndex);
+                }
+            }
+            dest[i] = Math.max(-1, Math.min(1, value));
+        }
+    }
+
+    /**
+     * Write the next count samples into frame and fill its level statistics
+     */
+    public void render(AudioFrame frame, int count) {
+        int length = Math.min(count, frame.getCapacity());
+        render(frame.getSamples(), length);
+        frame.measure(length);
+    }
+}
@@ -0,0 +1,70 @@
+/**
+ * Anti-alias low-pass filter and downsampler in one step
+ * Only the samples that survive the downsampling are ever computed (the polyphase form
+ * of filter-then-drop), so the cost is taps / factor multiply-adds per input sample
+ */
+public class PolyphaseDecimator {
+
+    private final int factor;
+    private final double[] taps;     // Linear-phase low-pass, centered on taps.length / 2
+    private final int center;
+
+    /**
+     * Create a decimator dividing the sample rate by factor
+     * The filter passes up to 90% of the new Nyquist frequency
+     */
+    public PolyphaseDecimator(int factor) {
+        if (factor < 2) {
+            throw new IllegalArgumentException("Decimation factor must be at least 2: " + factor);
+        }
+        this.factor = factor;
+
+        // Windowed-sinc design, 8 taps per output phase
+        int length = 8 * factor + 1;
+        taps = new double[length];
+        center = length / 2;
+        double cutoff = 0.9 * 0.5 / factor; // In cycles per input sample
+        double sum = 0;
+        for (int i = 0; i < length; i++) {
+            int n = i - center;
+            double sinc = n == 0 ? 2 * cutoff : Math.sin(2 * Math.PI * cutoff * n) / (Math.PI * n);
+            taps[i] = sinc * WindowFunction.BLACKMAN_HARRIS.value(i, length);
+            sum += taps[i];
+        }
+
+        // Unity gain at DC
+        for (int i = 0; i < length; i++) {
+            taps[i] /= sum;
+        }
+    }
+
+    public int getFactor() {
+        return factor;
+    }
+
+    /**
+     * Number of output samples produced from length input samples
+     */
+    public int outputLength(int length) {
+        return length / factor;
+    }
+
+    /**
+     * Filter and downsample the first length input samples into output
+     * Samples outside the frame count as zero; returns the number of samples written
+     */
+    public int decimate(double[] input, int length, double[] output) {
+        int count = outputLength(length);
+        for (int m = 0; m < count; m++) {
+            int position = m * factor + center;   // Input index lined up with taps[0]
+            int first = Math.max(0, position - length + 1);
+            int last = Math.min(taps.length - 1, position);
+            double sum = 0;
+            for (int k = first; k <= last; k++) {
+                sum += taps[k] * input[position - k];
+            }
+            output[m] = sum;
+        }
+        return count;
+    }
+}
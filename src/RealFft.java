@@ -0,0 +1,166 @@
+/**
+ * Radix-2 FFT for real-valued signals
+ * Packs the real input into a half-length complex transform and uses
+ * precomputed twiddle and bit-reversal tables, so no trig is done per call
+ */
+public class RealFft {
+
+    private final int size;      // Real transform length (power of two)
+    private final int half;      // Length of the packed complex transform
+
+    // Twiddles for the half-length complex FFT: exp(-2*pi*i*k/half)
+    private final double[] fftCos;
+    private final double[] fftSin;
+
+    // Twiddles for splitting/merging the packed spectrum: exp(-2*pi*i*k/size)
+    private final double[] splitCos;
+    private final double[] splitSin;
+
+    private final int[] bitReverse;
+
+    // Work buffers for the packed complex data
+    private final double[] workRe;
+    private final double[] workIm;
+
+    /**
+     * Create a transform of the given length (must be a power of two, at least 4)
+     */
+    public RealFft(int size) {
+        if (size < 4 || Integer.bitCount(size) != 1) {
+            throw new IllegalArgumentException("FFT size must be a power of two >= 4: " + size);
+        }
+        this.size = size;
+        this.half = size / 2;
+
+        fftCos = new double[half / 2];
+        fftSin = new double[half / 2];
+        for (int k = 0; k < half / 2; k++) {
+            double angle = -2 * Math.PI * k / half;
+            fftCos[k] = Math.cos(angle);
+            fftSin[k] = Math.sin(angle);
+        }
+
+        splitCos = new double[half];
+        splitSin = new double[half];
+        for (int k = 0; k < half; k++) {
+            double angle = -2 * Math.PI * k / size;
+            splitCos[k] = Math.cos(angle);
+            splitSin[k] = Math.sin(angle);
+        }
+
+        bitReverse = new int[half];
+        int bits = Integer.numberOfTrailingZeros(half);
+        for (int i = 0; i < half; i++) {
+            bitReverse[i] = Integer.reverse(i) >>> (32 - bits);
+        }
+
+        workRe = new double[half];
+        workIm = new double[half];
+    }
+
+    /**
+     * Length of the real signal this transform handles
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Forward transform of a real signal
+     * Writes bins 0..size/2 (inclusive) into outRe/outIm, which need size/2 + 1 entries
+     */
+    public void forward(double[] input, double[] outRe, double[] outIm) {
+        // Pack even samples into the real part and odd samples into the imaginary part
+        for (int n = 0; n < half; n++) {
+            workRe[n] = input[2 * n];
+            workIm[n] = input[2 * n + 1];
+        }
+        complexTransform(workRe, workIm, false);
+
+        // Split the packed spectrum into the spectrum of the real signal
+        for (int k = 0; k <= half; k++) {
+            int a = k % half;
+            int b = (half - k) % half;
+            double zr = workRe[a], zi = workIm[a];
+            double cr = workRe[b], ci = -workIm[b]; // conj(Z[half - k])
+
+            double evenRe = 0.5 * (zr + cr);
+            double evenIm = 0.5 * (zi + ci);
+            // (Z - conj) / 2i
+            double oddRe = 0.5 * (zi - ci);
+            double oddIm = -0.5 * (zr - cr);
+
+            double wr = k < half ? splitCos[k] : -1.0;
+            double wi = k < half ? splitSin[k] : 0.0;
+            outRe[k] = evenRe + wr * oddRe - wi * oddIm;
+            outIm[k] = evenIm + wr * oddIm + wi * oddRe;
+        }
+    }
+
+    /**
+     * Inverse transform back to a real signal (scaled so forward + inverse is identity)
+     * Reads bins 0..size/2 (inclusive) from inRe/inIm and writes size samples to output
+     */
+    public void inverse(double[] inRe, double[] inIm, double[] output) {
+        // Merge the half spectrum back into the packed complex spectrum
+        for (int k = 0; k < half; k++) {
+            int m = half - k;
+            double xr = inRe[k], xi = inIm[k];
+            double cr = inRe[m], ci = -inIm[m]; // conj(X[half - k])
+
+            double evenRe = 0.5 * (xr + cr);
+            double evenIm = 0.5 * (xi + ci);
+            double diffRe = 0.5 * (xr - cr);
+            double diffIm = 0.5 * (xi - ci);
+
+            // Multiply by conj(W^k) to recover the odd-sample spectrum
+            double wr = splitCos[k], wi = -splitSin[k];
+            double oddRe = diffRe * wr - diffIm * wi;
+            double oddIm = diffRe * wi + diffIm * wr;
+
+            // Z = even + i * odd
+            workRe[k] = evenRe - oddIm;
+            workIm[k] = evenIm + oddRe;
+        }
+        complexTransform(workRe, workIm, true);
+
+        double scale = 1.0 / half;
+        for (int n = 0; n < half; n++) {
+            output[2 * n] = workRe[n] * scale;
+            output[2 * n + 1] = workIm[n] * scale;
+        }
+    }
+
+    /**
+     * In-place iterative radix-2 complex FFT of length half (unscaled)
+     */
+    private void complexTransform(double[] re, double[] im, boolean inverse) {
+        for (int i = 0; i < half; i++) {
+            int j = bitReverse[i];
+            if (j > i) {
+                double t = re[i]; re[i] = re[j]; re[j] = t;
+                t = im[i]; im[i] = im[j]; im[j] = t;
+            }
+        }
+
+        double sign = inverse ? -1.0 : 1.0;
+        for (int len = 2; len <= half; len <<= 1) {
+            int halfLen = len >> 1;
+            int step = half / len;
+            for (int start = 0; start < half; start += len) {
+                for (int k = 0; k < halfLen; k++) {
+                    double wr = fftCos[k * step];
+                    double wi = sign * fftSin[k * step];
+                    int a = start + k;
+                    int b = a + halfLen;
+                    double tr = re[b] * wr - im[b] * wi;
+                    double ti = re[b] * wi + im[b] * wr;
+                    re[b] = re[a] - tr;
+                    im[b] = im[a] - ti;
+                    re[a] += tr;
+                    im[a] += ti;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,37 @@
+/**
+ * Holds a source back to the speed of real audio, for sources that could deliver faster
+ * (files, the generator, replays) when they stand in for a microphone
+ */
+class RealTimePacer {
+
+    private final double bytesPerSecond;
+    private long startNanos;
+    private long bytesDelivered;
+
+    RealTimePacer(javax.sound.sampled.AudioFormat format) {
+        this.bytesPerSecond = format.getFrameRate() * format.getFrameSize();
+    }
+
+    /**
+     * Start counting from now
+     */
+    void restart() {
+        startNanos = System.nanoTime();
+        bytesDelivered = 0;
+    }
+
+    /**
+     * Wait until the given number of further bytes would have been captured live
+     */
+    void pace(int bytes) throws java.io.InterruptedIOException {
+        bytesDelivered += bytes;
+        long due = startNanos + (long) (bytesDelivered / bytesPerSecond * 1e9);
+        long wait;
+        while ((wait = due - System.nanoTime()) > 0) {
+            java.util.concurrent.locks.LockSupport.parkNanos(wait);
+            if (Thread.interrupted()) {
+                throw new java.io.InterruptedIOException("Interrupted while pacing audio");
+            }
+        }
+    }
+}
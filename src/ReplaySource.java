@@ -0,0 +1,98 @@
+import javax.sound.sampled.AudioFormat;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Plays back audio held in memory, once or in a loop
+ * Useful for repeating the exact same input, e.g. a take captured from another source.
+ */
+public class ReplaySource implements AudioSource {
+
+    private final AudioFormat format;
+    private final byte[] data;
+    private final int length;
+    private final boolean loop;
+    private final RealTimePacer pacer;
+    private int position;
+    private volatile boolean started = false;      // Cleared by close from another thread
+
+    /**
+     * Replay length bytes of data in the given format (the array is used as is, not copied)
+     */
+    public ReplaySource(AudioFormat format, byte[] data, int length, boolean loop, boolean realTime) {
+        int frameSize = Math.max(1, format.getFrameSize());
+        this.format = format;
+        this.data = data;
+        this.length = length - length % frameSize;
+        this.loop = loop && this.length > 0;
+        this.pacer = realTime ? new RealTimePacer(format) : null;
+    }
+
+    /**
+     * Read up to seconds of audio from another source into memory
+     * The other source is started and closed again
+     */
+    public static ReplaySource capture(AudioSource source, double seconds, boolean loop, boolean realTime)
+            throws IOException {
+        AudioFormat format = source.getFormat();
+        byte[] data = new byte[(int) (seconds * format.getFrameRate()) * format.getFrameSize()];
+        int filled = 0;
+        source.start();
+        try {
+            while (filled < data.length) {
+                int read = source.read(data, filled, data.length - filled);
+                if (read < 0) {
+                    break;
+                }
+                filled += read;
+            }
+        } finally {
+            source.close();
+        }
+        return new ReplaySource(format, filled < data.length ? Arrays.copyOf(data, filled) : data, filled,
+                loop, realTime);
+    }
+
+    @Override
+    public AudioFormat getFormat() {
+        return format;
+    }
+
+    @Override
+    public void start() {
+        position = 0;
+        started = true;
+        if (pacer != null) {
+            pacer.restart();
+        }
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int count) throws IOException {
+        if (!started || (position >= length && !loop)) {
+            return -1;
+        }
+        int total = 0;
+        while (total < count) {
+            if (position >= length) {
+                if (!loop) {
+                    break;
+                }
+                position = 0;
+            }
+            int chunk = Math.min(count - total, length - position);
+            System.arraycopy(data, position, buffer, offset + total, chunk);
+            position += chunk;
+            total += chunk;
+        }
+        if (pacer != null) {
+            pacer.pace(total);
+        }
+        return total;
+    }
+
+    @Override
+    public void close() {
+        started = false;
+    }
+}
@@ -0,0 +1,80 @@
+/**
+ * Fixed-size analysis window that slides forward as new samples arrive
+ * Backed by a circular buffer, so pushing a hop never shifts the older samples
+ */
+public class SlidingWindow {
+
+    private final double[] ring;
+    private int writePos = 0;
+    private long totalPushed = 0;
+
+    /**
+     * Create a window holding the most recent size samples
+     */
+    public SlidingWindow(int size) {
+        ring = new double[size];
+    }
+
+    public int size() {
+        return ring.length;
+    }
+
+    /**
+     * Append count new samples, dropping the oldest ones off the front
+     */
+    public void push(double[] samples, int count) {
+        int offset = 0;
+        if (count > ring.length) {
+            // Only the newest samples can stay in the window
+            offset = count - ring.length;
+        }
+        while (offset < count) {
+            int chunk = Math.min(count - offset, ring.length - writePos);
+            System.arraycopy(samples, offset, ring, writePos, chunk);
+            writePos = (writePos + chunk) % ring.length;
+            offset += chunk;
+        }
+        totalPushed += count;
+    }
+
+    /**
+     * True once enough samples have arrived to fill the whole window
+     */
+    public boolean isFull() {
+        return totalPushed >= ring.length;
+    }
+
+    /**
+     * Number of valid samples, up to size() once the window has filled
+     */
+    public int available() {
+        return (int) Math.min(totalPushed, ring.length);
+    }
+
+    /**
+     * Copy the newest count samples into dest, oldest of them first
+     */
+    public void copyLatest(double[] dest, int count) {
+        int start = Math.floorMod(writePos - count, ring.length);
+        int tail = Math.min(count, ring.length - start);
+        System.arraycopy(ring, start, dest, 0, tail);
+        System.arraycopy(ring, 0, dest, tail, count - tail);
+    }
+
+    /**
+     * Copy the window into dest, oldest sample first; dest needs size() entries
+     */
+    public void copyTo(double[] dest) {
+        int tail = ring.length - writePos;
+        System.arraycopy(ring, writePos, dest, 0, tail);
+        System.arraycopy(ring, 0, dest, tail, writePos);
+    }
+
+    /**
+     * Forget all samples, e.g. when capture restarts
+     */
+    public void clear() {
+        writePos = 0;
+        totalPushed = 0;
+    }
+}
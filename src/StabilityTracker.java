@@ -0,0 +1,123 @@
+/**
+ * Keeps the tuner locked on one detection until another one is confirmed
+ * Remembers the last few detections in a ring of indices with a running histogram,
+ * so counting matches is a single array lookup and nothing is allocated per update
+ */
+public class StabilityTracker {
+
+    public static final int NONE = -1;
+
+    private final byte[] recent;      // Ring of detected index + 1 (0 means nothing detected)
+    private final int[] histogram;    // How many entries in the ring hold each value
+    private final int requiredConfirmations;
+    private int size = 0;
+    private int nextPos = 0;
+
+    private int lockedIndex = NONE;
+    private int confirmations = 0;
+
+    /**
+     * Create a tracker for indices 0..stateCount-1
+     *
+     * @param windowLength          how many recent detections are remembered
+     * @param requiredConfirmations matches within the window needed to switch to a new index
+     */
+    public StabilityTracker(int stateCount, int windowLength, int requiredConfirmations) {
+        if (stateCount < 1 || stateCount > 255) {
+            throw new IllegalArgumentException("State count must be 1..255: " + stateCount);
+        }
+        if (requiredConfirmations < 1 || requiredConfirmations > windowLength) {
+            throw new IllegalArgumentException("Required confirmations must be 1.." + windowLength
+                    + ": " + requiredConfirmations);
+        }
+        this.recent = new byte[windowLength];
+        this.histogram = new int[stateCount + 1];
+        this.requiredConfirmations = requiredConfirmations;
+    }
+
+    /**
+     * Feed one detection (NONE for silence or no match) and return the locked index
+     */
+    public int update(int detectedIndex) {
+        remember(detectedIndex);
+
+        // Same as currently locked - grow confidence
+        if (detectedIndex == lockedIndex) {
+            confirmations = Math.min(confirmations + 1, requiredConfirmations);
+        }
+        // Something else - only switch once it is confirmed often enough
+        else if (detectedIndex != NONE) {
+            int matchCount = getMatchCount(detectedIndex);
+            if (matchCount >= requiredConfirmations) {
+                lockedIndex = detectedIndex;
+                confirmations = matchCount;
+            }
+        }
+        // Silence - slowly decrease confidence
+        else {
+            confirmations = Math.max(0, confirmations - 1);
+            if (confirmations == 0) {
+                lockedIndex = NONE;
+            }
+        }
+
+        return lockedIndex;
+    }
+
+    /**
+     * How many of the remembered detections were this index
+     */
+    public int getMatchCount(int index) {
+        return histogram[index + 1];
+    }
+
+    public int getLockedIndex() {
+        return lockedIndex;
+    }
+
+    public int getConfirmations() {
+        return confirmations;
+    }
+
+    public int getRequiredConfirmations() {
+        return requiredConfirmations;
+    }
+
+    /**
+     * Confirmations as a fraction of the required count (0..1)
+     */
+    public double getConfidence() {
+        return (double) confirmations / requiredConfirmations;
+    }
+
+    /**
+     * Forget the lock and all remembered detections
+     */
+    public void reset() {
+        for (int i = 0; i < histogram.length; i++) {
+            histogram[i] = 0;
+        }
+        size = 0;
+        nextPos = 0;
+        lockedIndex = NONE;
+        confirmations = 0;
+    }
+
+    /**
+     * Add a detection to the ring, evicting the oldest one when full
+     */
+    private void remember(int detectedIndex) {
+        if (detectedIndex < NONE || detectedIndex >= histogram.length - 1) {
+            throw new IllegalArgumentException("Index out of range: " + detectedIndex);
+        }
+        if (size == recent.length) {
+            histogram[recent[nextPos] & 0xFF]--;
+        } else {
+            size++;
+        }
+        int value = detectedIndex + 1;
+        recent[nextPos] = (byte) value;
+        histogram[value]++;
+        nextPos = (nextPos + 1) % recent.length;
+    }
+}
@@ -0,0 +1,161 @@
+/**
+ * Polyphonic analysis of a strum - finds every target string in one long frame
+ * Runs a zero-padded real FFT over the frame, looks for each string's partials near
+ * their expected frequencies and refines them to sub-bin precision. Partials that land
+ * on another string's partial (e.g. the 3rd harmonic of low E on the B string) count
+ * less, so each string is measured mostly from evidence only it produces.
+ */
+public class StrumAnalyzer {
+
+    private static final int HARMONICS = 4;                // Partials used per string
+    private static final int COLLISION_HARMONICS = 8;      // Partials of other strings checked for overlap
+    private static final double SEARCH_CENTS = 60;         // How far a partial may sit from its target
+    private static final double COLLISION_CENTS = 25;      // Closer than this to another partial is a collision
+    private static final double COLLISION_WEIGHT = 0.25;   // Weight left for colliding partials
+    private static final double MIN_RELATIVE_PEAK = 0.03;  // Partials quieter than this (vs loudest) are ignored
+
+    private final double sampleRate;
+    private final double[] targets;
+    private final int frameLength;
+
+    private final RealFft fft;
+    private final double[] padded;
+    private final double[] spectrumRe;
+    private final double[] spectrumIm;
+    private final double[] power;
+    private final double[] windowTable;
+
+    // Precomputed per string and harmonic: search band in bins and evidence weight
+    private final int[][] bandStart;
+    private final int[][] bandEnd;
+    private final double[][] weights;
+
+    /**
+     * Create an analyzer for the given target fundamentals
+     *
+     * @param frameLength samples per analysis frame; longer frames resolve partials better but react slower
+     */
+    public StrumAnalyzer(double sampleRate, double[] targetFrequencies, int frameLength) {
+        this.sampleRate = sampleRate;
+        this.targets = targetFrequencies.clone();
+        this.frameLength = frameLength;
+
+        // Zero-pad to twice the frame for a finer bin grid to interpolate on
+        int size = Integer.highestOneBit(frameLength) == frameLength ? 2 * frameLength : 4 * Integer.highestOneBit(frameLength);
+        fft = new RealFft(size);
+        padded = new double[size];
+        spectrumRe = new double[size / 2 + 1];
+        spectrumIm = new double[size / 2 + 1];
+        power = new double[size / 2 + 1];
+        windowTable = WindowCache.get(WindowFunction.HANN, frameLength);
+
+        double binWidth = sampleRate / size;
+        double bandRatio = Math.pow(2, SEARCH_CENTS / 1200);
+        bandStart = new int[targets.length][HARMONICS];
+        bandEnd = new int[targets.length][HARMONICS];
+        weights = new double[targets.length][HARMONICS];
+        for (int s = 0; s < targets.length; s++) {
+            for (int h = 1; h <= HARMONICS; h++) {
+                double partial = targets[s] * h;
+                bandStart[s][h - 1] = Math.max(1, (int) Math.floor(partial / bandRatio / binWidth));
+                bandEnd[s][h - 1] = Math.min(power.length - 2, (int) Math.ceil(partial * bandRatio / binWidth));
+                double weight = 1.0 / h; // Higher partials drift sharp with inharmonicity
+                weights[s][h - 1] = collides(s, partial) ? weight * COLLISION_WEIGHT : weight;
+            }
+        }
+    }
+
+    public int getFrameLength() {
+        return frameLength;
+    }
+
+    public int getStringCount() {
+        return targets.length;
+    }
+
+    /**
+     * Analyze the first frameLength samples and fill result for every string
+     * Returns true if at least one string was heard
+     */
+    public boolean analyze(double[] samples, StrumResult result) {
+        result.clear();
+
+        for (int i = 0; i < frameLength; i++) {
+            padded[i] = samples[i] * windowTable[i];
+        }
+        for (int i = frameLength; i < padded.length; i++) {
+            padded[i] = 0.0;
+        }
+        fft.forward(padded, spectrumRe, spectrumIm);
+
+        double maxPower = 0;
+        for (int k = 0; k < power.length; k++) {
+            power[k] = spectrumRe[k] * spectrumRe[k] + spectrumIm[k] * spectrumIm[k];
+            if (power[k] > maxPower) {
+                maxPower = power[k];
+            }
+        }
+        if (maxPower <= 0) {
+            return false;
+        }
+        double minPower = maxPower * MIN_RELATIVE_PEAK * MIN_RELATIVE_PEAK;
+        double binWidth = sampleRate / fft.size();
+
+        boolean any = false;
+        for (int s = 0; s < targets.length; s++) {
+            double centsSum = 0;
+            double weightSum = 0;
+            double strongest = 0;
+
+            for (int h = 0; h < HARMONICS; h++) {
+                // Strongest local maximum inside the partial's search band
+                int peak = -1;
+                for (int k = bandStart[s][h]; k <= bandEnd[s][h]; k++) {
+                    if (power[k] > minPower && power[k] >= power[k - 1] && power[k] >= power[k + 1]
+                            && (peak < 0 || power[k] > power[peak])) {
+                        peak = k;
+                    }
+                }
+                if (peak < 0) {
+                    continue;
+                }
+
+                // Quadratic interpolation on the log spectrum gives the partial to a fraction of a bin
+                double offset = PeakInterpolation.parabolicOffset(
+                        Math.log(power[peak - 1] + 1e-30), Math.log(power[peak]), Math.log(power[peak + 1] + 1e-30));
+                double fundamental = (peak + offset) * binWidth / (h + 1);
+                double amplitude = Math.sqrt(power[peak] / maxPower);
+                double weight = weights[s][h] * amplitude;
+
+                centsSum += weight * 1200 * Math.log(fundamental / targets[s]) / Math.log(2);
+                weightSum += weight;
+                strongest = Math.max(strongest, amplitude);
+            }
+
+            if (weightSum > 0) {
+                double cents = centsSum / weightSum;
+                result.set(s, targets[s] * Math.pow(2, cents / 1200), cents, strongest);
+                any = true;
+            }
+        }
+        return any;
+    }
+
+    /**
+     * True if a partial of string s lands close to a partial of any other string
+     */
+    private boolean collides(int s, double partial) {
+        for (int other = 0; other < targets.length; other++) {
+            if (other == s) {
+                continue;
+            }
+            for (int h = 1; h <= COLLISION_HARMONICS; h++) {
+                double distance = Math.abs(1200 * Math.log(partial / (targets[other] * h)) / Math.log(2));
+                if (distance < COLLISION_CENTS) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,86 @@
+/**
+ * Per-string result of one strum analysis
+ * Mutable and reused between frames by the analysis thread
+ */
+public class StrumResult {
+
+    private final double[] frequencies;
+    private final double[] cents;
+    private final double[] strengths;
+
+    /**
+     * Create a result for the given number of strings
+     */
+    public StrumResult(int stringCount) {
+        frequencies = new double[stringCount];
+        cents = new double[stringCount];
+        strengths = new double[stringCount];
+        clear();
+    }
+
+    public int getStringCount() {
+        return cents.length;
+    }
+
+    /**
+     * True if the string was heard in this frame
+     */
+    public boolean isPresent(int string) {
+        return !Double.isNaN(cents[string]);
+    }
+
+    /**
+     * Estimated fundamental in Hz, NaN if the string wasn't heard
+     */
+    public double getFrequency(int string) {
+        return frequencies[string];
+    }
+
+    /**
+     * Deviation from the target pitch in cents (positive is sharp), NaN if the string wasn't heard
+     */
+    public double getCents(int string) {
+        return cents[string];
+    }
+
+    /**
+     * Strongest partial of the string relative to the loudest peak in the frame (0..1)
+     */
+    public double getStrength(int string) {
+        return strengths[string];
+    }
+
+    /**
+     * How many strings were heard
+     */
+    public int getPresentCount() {
+        int count = 0;
+        for (double value : cents) {
+            if (!Double.isNaN(value)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Copy of the cents values, for publishing outside the analysis thread
+     */
+    public double[] copyCents() {
+        return cents.clone();
+    }
+
+    void set(int string, double frequency, double centsOffset, double strength) {
+        frequencies[string] = frequency;
+        cents[string] = centsOffset;
+        strengths[string] = strength;
+    }
+
+    void clear() {
+        for (int i = 0; i < cents.length; i++) {
+            frequencies[i] = Double.NaN;
+            cents[i] = Double.NaN;
+            strengths[i] = 0;
+        }
+    }
+}
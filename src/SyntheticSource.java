@@ -0,0 +1,107 @@
+import javax.sound.sampled.AudioFormat;
+import java.io.InterruptedIOException;
+
+/**
+ * Plucked strings from PluckSynthesizer as 16-bit PCM, for running the tuner without a guitar
+ * Plucks the given frequencies one after another, each ringing for a fixed time, and starts over
+ * after the last. Deterministic for a given seed.
+ */
+public class SyntheticSource implements AudioSource {
+
+    private final AudioFormat format;
+    private final double[] frequencies;
+    private final long samplesPerNote;
+    private final long totalSamples;
+    private final long seed;
+    private final RealTimePacer pacer;
+    private final double[] samples = new double[1024];
+
+    private final PluckSynthesizer synthesizer;
+    private long position;
+    private volatile boolean started = false;      // Cleared by close from another thread
+
+    /**
+     * @param frequencies    notes to pluck in turn, e.g. the six open strings
+     * @param secondsPerNote how long each note rings before the next pluck
+     * @param totalSeconds   when the source ends, 0 or less to go on forever
+     * @param realTime       deliver no faster than a live microphone would
+     */
+    public SyntheticSource(float sampleRate, double[] frequencies, double secondsPerNote, double totalSeconds,
+                           boolean realTime, long seed) {
+        this.format = new AudioFormat(sampleRate, 16, 1, true, false);
+        this.frequencies = frequencies.clone();
+        this.samplesPerNote = Math.max(1, (long) (secondsPerNote * sampleRate));
+        this.totalSamples = totalSeconds > 0 ? (long) (totalSeconds * sampleRate) : Long.MAX_VALUE;
+        this.seed = seed;
+        this.pacer = realTime ? new RealTimePacer(format) : null;
+        this.synthesizer = createSynthesizer(sampleRate, this.frequencies);
+    }
+
+    /**
+     * The generator, to change detune, noise, hum and so on - settings apply from the next pluck
+     */
+    public PluckSynthesizer getSynthesizer() {
+        return synthesizer;
+    }
+
+    @Override
+    public AudioFormat getFormat() {
+        return format;
+    }
+
+    /**
+     * Start from the first note again - every start delivers exactly the same samples
+     */
+    @Override
+    public void start() {
+        synthesizer.reset();
+        position = 0;
+        started = true;
+        if (pacer != null) {
+            pacer.restart();
+        }
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws InterruptedIOException {
+        if (!started || position >= totalSamples) {
+            return -1;
+        }
+        int frames = (int) Math.min(length / 2, totalSamples - position);
+        for (int done = 0; done < frames; ) {
+            // Pluck on note boundaries, render up to the next one
+            if (position % samplesPerNote == 0) {
+                synthesizer.pluck(frequencies[(int) (position / samplesPerNote % frequencies.length)]);
+            }
+            int count = (int) Math.min(Math.min(samples.length, frames - done),
+                    samplesPerNote - position % samplesPerNote);
+            synthesizer.render(samples, count);
+            for (int i = 0; i < count; i++) {
+                int value = (int) Math.round(samples[i] * 32767);
+                int at = offset + 2 * (done + i);
+                buffer[at] = (byte) value;
+                buffer[at + 1] = (byte) (value >> 8);
+            }
+            done += count;
+            position += count;
+        }
+        if (pacer != null) {
+            pacer.pace(frames * 2);
+        }
+        return frames * 2;
+    }
+
+    @Override
+    public void close() {
+        started = false;
+    }
+
+    private PluckSynthesizer createSynthesizer(float sampleRate, double[] frequencies) {
+        double lowest = Double.MAX_VALUE;
+        for (double frequency : frequencies) {
+            lowest = Math.min(lowest, frequency);
+        }
+        // Room for a flat detune below the lowest note
+        return new PluckSynthesizer(sampleRate, lowest * 0.9, seed);
+    }
+}
@@ -0,0 +1,255 @@
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Micro-benchmarks for the hot paths of the tuner: decoding and level, pitch detection per
+ * detector and frame size, string matching, stability tracking and a whole pipeline hop
+ * Each case is warmed up, then timed until its time budget runs out; allocation per call comes
+ * from the thread's allocation counter. Run with e.g.
+ *   java TunerBenchmark --sizes 1024,4096 --engines fft,mpm --millis 300
+ */
+public class TunerBenchmark {
+
+    private static final float SAMPLE_RATE = TunerPipeline.SAMPLE_RATE;
+    private static final int[] DEFAULT_SIZES = {1024, 2048, 4096};
+
+    // Keeps results alive so the JIT can't drop the work being measured
+    private static volatile double sink;
+
+    private final long budgetNanos;
+    private final com.sun.management.ThreadMXBean threads;
+
+    public TunerBenchmark(long budgetMillis) {
+        this.budgetNanos = budgetMillis * 1_000_000L;
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        this.threads = bean instanceof com.sun.management.ThreadMXBean
+                && ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported()
+                ? (com.sun.management.ThreadMXBean) bean : null;
+    }
+
+    /**
+     * Something to measure - returns a value that depends on the work done
+     */
+    @FunctionalInterface
+    interface Operation {
+        double run();
+    }
+
+    /**
+     * Time one case and print its row
+     */
+    void measure(String name, String params, Operation operation) {
+        // Warm up for half the budget so the measured calls run compiled code
+        long warmupEnd = System.nanoTime() + budgetNanos / 2;
+        double result = 0;
+        while (System.nanoTime() < warmupEnd) {
+            result += operation.run();
+        }
+
+        long threadId = Thread.currentThread().getId();
+        long bytesBefore = threads != null ? threads.getThreadAllocatedBytes(threadId) : 0;
+        long start = System.nanoTime();
+        long end = start + budgetNanos;
+        long calls = 0;
+        long now;
+        do {
+            // Batches keep the clock reads out of the measurement for fast operations
+            for (int i = 0; i < 16; i++) {
+                result += operation.run();
+            }
+            calls += 16;
+            now = System.nanoTime();
+        } while (now < end);
+        long bytesAfter = threads != null ? threads.getThreadAllocatedBytes(threadId) : 0;
+        sink = result;
+
+        double nanosPerCall = (double) (now - start) / calls;
+        String bytesPerCall = threads != null
+                ? String.format(Locale.ROOT, "%.1f", (double) (bytesAfter - bytesBefore) / calls) : "n/a";
+        System.out.printf(Locale.ROOT, "%-22s %-28s %14.1f %10s%n", name, params, nanosPerCall, bytesPerCall);
+    }
+
+    /**
+     * Test signals - each is long enough for the largest frame
+     */
+    static List<String> signalNames() {
+        List<String> names = new ArrayList<>(List.of("tone", "noisy-pluck", "silence"));
+        for (int i = 0; i < TunerPipeline.STRING_FREQUENCIES.length; i++) {
+            names.add("string-" + (TunerPipeline.STRING_FREQUENCIES.length - i) + TunerPipeline.STRING_NAMES[i]);
+        }
+        return names;
+    }
+
+    static double[] signal(String name, int length) {
+        double[] samples = new double[length];
+        Random random = new Random(42);
+        switch (name) {
+            case "tone" -> addPluck(samples, 110.0, 0.0, 0.0, random);
+            case "noisy-pluck" -> addPluck(samples, 146.83, 1.5, 0.05, random);
+            case "silence" -> {
+                for (int i = 0; i < length; i++) {
+                    samples[i] = random.nextGaussian() * 0.001;
+                }
+            }
+            default -> {
+                int string = signalNames().indexOf(name) - 3;
+                addPluck(samples, TunerPipeline.STRING_FREQUENCIES[string], 0.5, 0.01, random);
+            }
+        }
+        return samples;
+    }
+
+    /**
+     * A decaying string with a few harmonics; a decay of 0 gives a steady pure tone
+     */
+    private static void addPluck(double[] samples, double frequency, double decayPerSecond, double noise,
+                                 Random random) {
+        int harmonics = decayPerSecond > 0 ? 6 : 1;
+        for (int i = 0; i < samples.length; i++) {
+            double t = i / SAMPLE_RATE;
+            double value = 0;
+            for (int h = 1; h <= harmonics; h++) {
+                value += Math.sin(2 * Math.PI * frequency * h * t) * Math.exp(-decayPerSecond * h * t) / h;
+            }
+            samples[i] = 0.4 * value + noise * random.nextGaussian();
+        }
+    }
+
+    /**
+     * Decoding with level statistics - what the live loop does to every hop
+     */
+    void benchmarkDecode(int[] sizes) {
+        javax.sound.sampled.AudioFormat format = new javax.sound.sampled.AudioFormat(SAMPLE_RATE, 16, 1, true, false);
+        PcmDecoder decoder = new PcmDecoder(format);
+        for (int size : sizes) {
+            double[] samples = signal("noisy-pluck", size);
+            byte[] pcm = new byte[size * 2];
+            for (int i = 0; i < size; i++) {
+                int value = (int) Math.max(-32768, Math.min(32767, samples[i] * 32767));
+                pcm[2 * i] = (byte) value;
+                pcm[2 * i + 1] = (byte) (value >> 8);
+            }
+            AudioFrame frame = new AudioFrame(size);
+            measure("decodeAndLevel", "frame=" + size, () -> {
+                decoder.decode(pcm, pcm.length, frame);
+                return frame.getMeanAbs();
+            });
+        }
+    }
+
+    /**
+     * One detector call per frame, for every detector, frame size and signal
+     */
+    void benchmarkDetectors(int[] sizes, List<String> engines) {
+        PitchDetector[] detectors = TunerPipeline.createDetectors(SAMPLE_RATE,
+                TunerPipeline.MIN_FREQUENCY, TunerPipeline.MAX_FREQUENCY);
+        PitchResult result = new PitchResult();
+        for (int d = 0; d < detectors.length; d++) {
+            if (!engines.contains(TunerPipeline.ENGINE_KEYS[d])) {
+                continue;
+            }
+            PitchDetector detector = detectors[d];
+            for (int size : sizes) {
+                for (String signalName : signalNames()) {
+                    double[] samples = signal(signalName, size);
+                    measure("detect", TunerPipeline.ENGINE_KEYS[d] + " frame=" + size + " " + signalName, () -> {
+                        detector.detect(samples, size, result);
+                        return result.getFrequency();
+                    });
+                }
+            }
+        }
+    }
+
+    /**
+     * Matching a frequency to the nearest string
+     */
+    void benchmarkFindClosestString() {
+        double[] frequencies = new double[64];
+        Random random = new Random(7);
+        for (int i = 0; i < frequencies.length; i++) {
+            frequencies[i] = TunerPipeline.MIN_FREQUENCY
+                    + random.nextDouble() * (TunerPipeline.MAX_FREQUENCY - TunerPipeline.MIN_FREQUENCY);
+        }
+        int[] next = {0};
+        measure("findClosestString", "random 70-400 Hz", () ->
+                TunerPipeline.findClosestString(frequencies[next[0]++ & 63]));
+    }
+
+    /**
+     * Stability tracking - steady input, and input flipping between two strings and silence
+     */
+    void benchmarkStability() {
+        StabilityTracker steady = new StabilityTracker(TunerPipeline.STRING_NAMES.length,
+                TunerPipeline.STABILITY_WINDOW, TunerPipeline.REQUIRED_CONFIRMATIONS);
+        measure("processStringDetection", "steady", () -> steady.update(2));
+
+        StabilityTracker flipping = new StabilityTracker(TunerPipeline.STRING_NAMES.length,
+                TunerPipeline.STABILITY_WINDOW, TunerPipeline.REQUIRED_CONFIRMATIONS);
+        int[] pattern = {1, 1, 4, 1, StabilityTracker.NONE, 4, 4, 1};
+        int[] next = {0};
+        measure("processStringDetection", "flipping", () -> flipping.update(pattern[next[0]++ & 7]));
+    }
+
+    /**
+     * A whole hop through the pipeline - windowing, adaptive detection, matching and stability
+     */
+    void benchmarkPipeline(List<String> engines) {
+        double[] samples = signal("noisy-pluck", (int) SAMPLE_RATE);
+        int hops = samples.length / TunerPipeline.HOP_SIZE;
+        AudioFrame frame = new AudioFrame(TunerPipeline.HOP_SIZE);
+        for (int d = 0; d < TunerPipeline.ENGINE_KEYS.length; d++) {
+            if (!engines.contains(TunerPipeline.ENGINE_KEYS[d])) {
+                continue;
+            }
+            TunerPipeline pipeline = new TunerPipeline(SAMPLE_RATE);
+            pipeline.setDetectorChoice(d);
+            int[] next = {0};
+            measure("pipelineHop", TunerPipeline.ENGINE_KEYS[d] + " hop=" + TunerPipeline.HOP_SIZE, () -> {
+                int hop = next[0]++ % hops;
+                System.arraycopy(samples, hop * TunerPipeline.HOP_SIZE, frame.getSamples(), 0, TunerPipeline.HOP_SIZE);
+                frame.update(TunerPipeline.HOP_SIZE, 0.1, 0.1, 0.4);
+                return pipeline.process(frame, TunerMode.GUITAR).frequency();
+            });
+        }
+    }
+
+    /**
+     * Command line entry point
+     */
+    public static void main(String[] args) {
+        int[] sizes = DEFAULT_SIZES;
+        List<String> engines = List.of(TunerPipeline.ENGINE_KEYS);
+        long millis = 200;
+
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--sizes" -> {
+                    String[] parts = args[i + 1].split(",");
+                    sizes = new int[parts.length];
+                    for (int j = 0; j < parts.length; j++) {
+                        sizes[j] = Integer.parseInt(parts[j].trim());
+                    }
+                }
+                case "--engines" -> engines = List.of(args[i + 1].toLowerCase(Locale.ROOT).split(","));
+                case "--millis" -> millis = Long.parseLong(args[i + 1]);
+                default -> {
+                    System.err.println("Usage: java TunerBenchmark [--sizes 1024,2048,4096]"
+                            + " [--engines direct,fft,decimated,yin,mpm] [--millis <per case>]");
+                    System.exit(2);
+                }
+            }
+        }
+
+        TunerBenchmark benchmark = new TunerBenchmark(millis);
+        System.out.printf(Locale.ROOT, "%-22s %-28s %14s %10s%n", "benchmark", "params", "ns/op", "B/op");
+        benchmark.benchmarkDecode(sizes);
+        benchmark.benchmarkFindClosestString();
+        benchmark.benchmarkStability();
+        benchmark.benchmarkDetectors(sizes, engines);
+        benchmark.benchmarkPipeline(engines);
+    }
+}
@@ -0,0 +1,39 @@
+/**
+ * What the tuner compares the detected pitch against
+ */
+public enum TunerMode {
+
+    /** The six strings of a guitar in standard tuning */
+    GUITAR("Guitar strings"),
+
+    /** Any note of the equal-tempered scale */
+    CHROMATIC("Chromatic"),
+
+    /** All six guitar strings at once from a single strum */
+    STRUM("Strum (all strings)");
+
+    private final String displayName;
+
+    TunerMode(String displayName) {
+        this.displayName = displayName;
+    }
+
+    /**
+     * Look up a mode by name (case ignored), falling back to GUITAR
+     */
+    public static TunerMode fromName(String name) {
+        if (name != null) {
+            for (TunerMode mode : values()) {
+                if (mode.name().equalsIgnoreCase(name)) {
+                    return mode;
+                }
+            }
+        }
+        return GUITAR;
+    }
+
+    @Override
+    public String toString() {
+        return displayName;
+    }
+}
@@ -0,0 +1,349 @@
+/**
+ * The detection and stability pipeline without any user interface
+ * Takes decoded hops of audio and turns each one into a DetectionSnapshot. The Swing tuner
+ * feeds it from the microphone, the offline analyzer from audio files.
+ * Not thread-safe: process and reset must be called from one thread, only the detector
+ * choice, the window size getter and the statistics may be used from others.
+ */
+public class TunerPipeline {
+
+    // Standard guitar strings - everything is keyed by the index into these tables,
+    // so the two E strings stay distinct even though they share a letter
+    static final double[] STRING_FREQUENCIES = {82.41, 110.00, 146.83, 196.00, 246.94, 329.63};
+    static final String[] STRING_NAMES = {"E", "A", "D", "G", "B", "E"};
+    static final String[] STRING_FULL_NAMES = {"Low E (6th)", "A (5th)", "D (4th)", "G (3rd)", "B (2nd)", "High E (1st)"};
+
+    // Chromatic mode - every equal-tempered note from E1 to E6
+    static final NoteTable CHROMATIC_NOTES = NoteTable.bassToHighE();
+    private static final double CHROMATIC_MIN_FREQUENCY = 38.0;  // Below E1
+    private static final double CHROMATIC_MAX_FREQUENCY = 1400.0; // Above E6
+
+    // Stability settings - these prevent jumping around
+    static final double MIN_VOLUME_THRESHOLD = 0.03;          // Ignore quiet sounds
+    static final int REQUIRED_CONFIRMATIONS = 6;              // Need 6 consistent readings
+    static final int STABILITY_WINDOW = 10;                   // Out of the last 10 readings
+    private static final double FREQUENCY_TOLERANCE = 15.0;   // ±15 Hz tolerance
+
+    // Pitch detection settings
+    static final float SAMPLE_RATE = 44100.0f;
+    static final double MIN_FREQUENCY = 70.0;                 // Below low E
+    static final double MAX_FREQUENCY = 400.0;                // Above high E
+
+    // Sliding analysis window - a new estimate every hop, pick the hop with -Dtuner.hop=<samples>
+    static final int WINDOW_SIZE = 4096;                       // ~93 ms at 44.1 kHz
+    private static final String HOP_PROPERTY = "tuner.hop";
+    static final int HOP_SIZE = Math.max(64, Math.min(WINDOW_SIZE, Integer.getInteger(HOP_PROPERTY, 1024)));
+
+    // Adaptive window length - start short and only grow for long periods or unclear frames,
+    // set the shortest length with -Dtuner.minWindow=<samples> (4096 turns adaptation off)
+    private static final String MIN_WINDOW_PROPERTY = "tuner.minWindow";
+    private static final int MIN_WINDOW_SIZE = Math.max(256, Math.min(WINDOW_SIZE,
+            Integer.highestOneBit(Integer.getInteger(MIN_WINDOW_PROPERTY, 1024))));
+    private static final double ADAPTIVE_MIN_CLARITY = 0.8;   // Clearer than this is trusted right away
+    private static final double ADAPTIVE_MIN_PERIODS = 4.0;   // Window must hold this many periods
+
+    // Starting detector - pick with -Dtuner.engine=direct|fft|decimated|yin|mpm, default is direct
+    private static final String ENGINE_PROPERTY = "tuner.engine";
+    static final String[] ENGINE_KEYS = {"direct", "fft", "decimated", "yin", "mpm"};
+
+    // Sample rate divider for the decimated engine's coarse search - set with -Dtuner.decimation=<factor>
+    private static final String DECIMATION_PROPERTY = "tuner.decimation";
+    private static final int DECIMATION_FACTOR = Math.max(2, Integer.getInteger(DECIMATION_PROPERTY, 4));
+
+    // Autocorrelation window - pick with -Dtuner.window=hann|hamming|blackman-harris|gaussian
+    private static final String WINDOW_PROPERTY = "tuner.window";
+    private static final WindowFunction WINDOW = WindowFunction.fromName(System.getProperty(WINDOW_PROPERTY));
+
+    // Strum mode - all six strings from one long frame, so partials a few Hz apart separate cleanly
+    static final int STRUM_FRAME_SIZE = 16384;                 // ~370 ms at 44.1 kHz
+
+    private final float sampleRate;
+
+    // Pitch detectors per tuner mode - the detector can be switched while processing
+    private final PitchDetector[][] pitchDetectors;
+    private volatile int detectorChoice;
+    private final PitchResult pitchResult = new PitchResult();
+    private volatile int detectWindowSize = 0;                 // Window length the last estimate came from
+
+    // Stage latencies and frame counts, and the window and detect time of the current hop
+    private final PipelineStats stats = new PipelineStats();
+    private long windowNanos;
+    private long detectNanos;
+
+    // Strum analysis and the reading held while the strum rings out
+    private final StrumAnalyzer strumAnalyzer;
+    private final StrumResult strumResult = new StrumResult(STRING_FREQUENCIES.length);
+    private double[] strumCents = null;
+
+    // Stability state per tuner mode
+    private final StabilityTracker[] stabilityTrackers = {
+            new StabilityTracker(STRING_NAMES.length, STABILITY_WINDOW, REQUIRED_CONFIRMATIONS),
+            new StabilityTracker(CHROMATIC_NOTES.size(), STABILITY_WINDOW, REQUIRED_CONFIRMATIONS)
+    };
+    private TunerMode activeMode = null;
+
+    // Sample buffers reused for every hop
+    private final SlidingWindow window = new SlidingWindow(WINDOW_SIZE);
+    private final double[] analysisSamples = new double[WINDOW_SIZE];
+    private final SlidingWindow strumWindow = new SlidingWindow(STRUM_FRAME_SIZE);
+    private final double[] strumSamples = new double[STRUM_FRAME_SIZE];
+
+    /**
+     * Create a pipeline for audio at the given sample rate, starting with the -Dtuner.engine detector
+     */
+    public TunerPipeline(float sampleRate) {
+        this.sampleRate = sampleRate;
+        pitchDetectors = new PitchDetector[][] {
+                createDetectors(sampleRate, MIN_FREQUENCY, MAX_FREQUENCY),
+                createDetectors(sampleRate, CHROMATIC_MIN_FREQUENCY, CHROMATIC_MAX_FREQUENCY)
+        };
+        strumAnalyzer = new StrumAnalyzer(sampleRate, STRING_FREQUENCIES, STRUM_FRAME_SIZE);
+
+        String engine = System.getProperty(ENGINE_PROPERTY, ENGINE_KEYS[0]);
+        for (int i = 0; i < ENGINE_KEYS.length; i++) {
+            if (ENGINE_KEYS[i].equalsIgnoreCase(engine)) {
+                detectorChoice = i;
+            }
+        }
+    }
+
+    public float getSampleRate() {
+        return sampleRate;
+    }
+
+    /**
+     * Display names of the available detectors, in selection order
+     */
+    public String[] getDetectorNames() {
+        String[] names = new String[pitchDetectors[0].length];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = pitchDetectors[0][i].getName();
+        }
+        return names;
+    }
+
+    public int getDetectorChoice() {
+        return detectorChoice;
+    }
+
+    /**
+     * Switch detectors - takes effect on the next hop
+     */
+    public void setDetectorChoice(int choice) {
+        detectorChoice = choice;
+    }
+
+    /**
+     * Latencies and frame counts - callers add the decode and publish stages they run themselves
+     */
+    public PipelineStats getStats() {
+        return stats;
+    }
+
+    /**
+     * Window length the last estimate came from, in samples
+     */
+    public int getDetectWindowSize() {
+        return detectWindowSize;
+    }
+
+    /**
+     * Forget the locked string or note, recent detections and the held strum reading
+     */
+    public void reset() {
+        for (StabilityTracker tracker : stabilityTrackers) {
+            tracker.reset();
+        }
+        strumCents = null;
+    }
+
+    /**
+     * Forget everything including the buffered audio, ready for an unrelated recording
+     */
+    public void clear() {
+        reset();
+        window.clear();
+        strumWindow.clear();
+        activeMode = null;
+        detectWindowSize = 0;
+    }
+
+    /**
+     * Analyze one decoded hop in the given mode and return the resulting detection state
+     * Switching modes between hops resets the stability state. Once warm, the returned snapshot
+     * is the only allocation in guitar and chromatic mode (checked by AllocationCheck)
+     */
+    public DetectionSnapshot process(AudioFrame hop, TunerMode mode) {
+        if (mode != activeMode) {
+            activeMode = mode;
+            reset();
+        }
+
+        long start = System.nanoTime();
+        window.push(hop.getSamples(), hop.getLength());
+        strumWindow.push(hop.getSamples(), hop.getLength());
+        double level = hop.getMeanAbs();
+        windowNanos = System.nanoTime() - start;
+        detectNanos = 0;
+        if (level <= MIN_VOLUME_THRESHOLD) {
+            stats.countSilent();
+        }
+
+        // Strum mode measures every string from the long window instead
+        if (mode == TunerMode.STRUM) {
+            if (level > MIN_VOLUME_THRESHOLD && strumWindow.isFull()) {
+                long copyStart = System.nanoTime();
+                strumWindow.copyTo(strumSamples);
+                windowNanos += System.nanoTime() - copyStart;
+                if (analyzeStrum(strumSamples)) {
+                    strumCents = strumResult.copyCents();
+                }
+                recordAnalysis();
+            }
+            stats.record(PipelineStats.Stage.WINDOW, windowNanos);
+            return new DetectionSnapshot(mode, StabilityTracker.NONE, -1, 0, 0, 0, 0, level,
+                    System.nanoTime(), strumCents);
+        }
+
+        // Only analyze if volume is above threshold and the window has filled up
+        int detectedIndex = StabilityTracker.NONE;
+        double frequency = -1;
+        if (level > MIN_VOLUME_THRESHOLD && window.available() >= MIN_WINDOW_SIZE) {
+            frequency = detectPrimaryFrequency(mode);
+            recordAnalysis();
+        }
+        stats.record(PipelineStats.Stage.WINDOW, windowNanos);
+
+        long stabilizeStart = System.nanoTime();
+        if (frequency > 0) {
+            detectedIndex = mode == TunerMode.CHROMATIC
+                    ? CHROMATIC_NOTES.nearestNote(frequency)
+                    : findClosestString(frequency);
+        }
+
+        // Process the detection with stability logic
+        processStringDetection(mode, detectedIndex);
+
+        DetectionSnapshot snapshot = buildSnapshot(mode, detectedIndex, frequency, level);
+        stats.record(PipelineStats.Stage.STABILIZE, System.nanoTime() - stabilizeStart);
+        return snapshot;
+    }
+
+    /**
+     * Name of a target index in the given mode, e.g. "A (5th)" or "F#2"
+     */
+    public static String getTargetName(TunerMode mode, int targetIndex) {
+        return mode == TunerMode.CHROMATIC ? CHROMATIC_NOTES.getName(targetIndex) : STRING_FULL_NAMES[targetIndex];
+    }
+
+    /**
+     * Create one of each pitch detector for a frequency range, in ENGINE_KEYS order
+     */
+    static PitchDetector[] createDetectors(float sampleRate, double minFrequency, double maxFrequency) {
+        return new PitchDetector[] {
+                new AutocorrelationDetector(sampleRate, minFrequency, maxFrequency, false, WINDOW),
+                new AutocorrelationDetector(sampleRate, minFrequency, maxFrequency, true, WINDOW),
+                new AutocorrelationDetector(sampleRate, minFrequency, maxFrequency, false, WINDOW, DECIMATION_FACTOR),
+                new YinDetector(sampleRate, minFrequency, maxFrequency),
+                new McLeodDetector(sampleRate, minFrequency, maxFrequency)
+        };
+    }
+
+    /**
+     * Detect the primary frequency with the selected pitch detector for the mode's range
+     * Tries the shortest window first and doubles it while the estimate is unclear or the
+     * period is too long for the window, so treble strings lock from the newest samples only
+     */
+    private double detectPrimaryFrequency(TunerMode mode) {
+        PitchDetector detector = pitchDetectors[mode.ordinal()][detectorChoice];
+        int available = window.available();
+        double frequency = -1; // -1 means no clear frequency found
+
+        for (int size = MIN_WINDOW_SIZE; size <= available; size *= 2) {
+            long copyStart = System.nanoTime();
+            window.copyLatest(analysisSamples, size);
+            long detectStart = System.nanoTime();
+            boolean found = detector.detect(analysisSamples, size, pitchResult);
+            long detectEnd = System.nanoTime();
+            windowNanos += detectStart - copyStart;
+            detectNanos += detectEnd - detectStart;
+            frequency = found ? pitchResult.getFrequency() : -1;
+            detectWindowSize = size;
+
+            boolean clearEnough = found && pitchResult.getClarity() >= ADAPTIVE_MIN_CLARITY
+                    && size * frequency / sampleRate >= ADAPTIVE_MIN_PERIODS;
+            if (clearEnough || size * 2 > Math.min(WINDOW_SIZE, available)) {
+                break;
+            }
+        }
+        return frequency;
+    }
+
+    /**
+     * Measure every string in one strum frame into strumResult
+     * Returns true if at least one string was heard
+     */
+    private boolean analyzeStrum(double[] samples) {
+        long start = System.nanoTime();
+        boolean heard = strumAnalyzer.analyze(samples, strumResult);
+        detectNanos = System.nanoTime() - start;
+        detectWindowSize = STRUM_FRAME_SIZE;
+        return heard;
+    }
+
+    /**
+     * Count an analyzed hop and add its detector time to the statistics
+     */
+    private void recordAnalysis() {
+        stats.countAnalyzed();
+        stats.record(PipelineStats.Stage.DETECT, detectNanos);
+    }
+
+    /**
+     * Find the closest guitar string to the detected frequency
+     * Returns its index into the string tables, or StabilityTracker.NONE if none is close enough
+     */
+    static int findClosestString(double frequency) {
+        double minDifference = Double.MAX_VALUE;
+        int closestString = StabilityTracker.NONE;
+
+        for (int i = 0; i < STRING_FREQUENCIES.length; i++) {
+            double difference = Math.abs(frequency - STRING_FREQUENCIES[i]);
+
+            // Only consider it a match if it's within tolerance
+            if (difference < FREQUENCY_TOLERANCE && difference < minDifference) {
+                minDifference = difference;
+                closestString = i;
+            }
+        }
+
+        return closestString;
+    }
+
+    /**
+     * Process string detection with stability logic
+     * This prevents jumping between strings
+     */
+    private void processStringDetection(TunerMode mode, int detectedIndex) {
+        stabilityTrackers[mode.ordinal()].update(detectedIndex);
+    }
+
+    /**
+     * Build an immutable snapshot of the current detection state
+     */
+    private DetectionSnapshot buildSnapshot(TunerMode mode, int detectedIndex, double frequency, double level) {
+        StabilityTracker tracker = stabilityTrackers[mode.ordinal()];
+        int targetIndex = tracker.getLockedIndex();
+
+        double cents = 0;
+        if (targetIndex >= 0 && detectedIndex == targetIndex) {
+            cents = mode == TunerMode.CHROMATIC
+                    ? CHROMATIC_NOTES.centsFrom(targetIndex, frequency)
+                    : 1200 * Math.log(frequency / STRING_FREQUENCIES[targetIndex]) / Math.log(2);
+        }
+
+        double clarity = frequency > 0 ? pitchResult.getClarity() : 0;
+        return new DetectionSnapshot(mode, targetIndex, frequency, clarity, cents, tracker.getConfirmations(),
+                tracker.getConfidence(), level, System.nanoTime(), null);
+    }
+}
@@ -0,0 +1,38 @@
+import javax.swing.SwingUtilities;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Schedules a UI update on the EDT with at most one update pending at a time
+ * Requests made while an update is still queued are folded into it, so the task
+ * always renders the newest state and the EDT queue never fills up
+ */
+public class UpdateCoalescer {
+
+    private final Runnable task;
+    private final AtomicBoolean pending = new AtomicBoolean(false);
+    private final Runnable runner = this::runPending;
+
+    /**
+     * Create a coalescer for a task that must run on the EDT
+     */
+    public UpdateCoalescer(Runnable task) {
+        this.task = task;
+    }
+
+    /**
+     * Ask for an update - safe to call from any thread, as often as needed
+     */
+    public void request() {
+        if (pending.compareAndSet(false, true)) {
+            SwingUtilities.invokeLater(runner);
+        }
+    }
+
+    /**
+     * Run the task on the EDT; clearing the flag first means a request made during the run isn't lost
+     */
+    private void runPending() {
+        pending.set(false);
+        task.run();
+    }
+}
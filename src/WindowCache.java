@@ -0,0 +1,28 @@
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Precomputed window tables, built once per window type and frame length
+ * Tables are shared between detectors and must not be modified
+ */
+public final class WindowCache {
+
+    private static final Map<Long, double[]> TABLES = new ConcurrentHashMap<>();
+
+    private WindowCache() {
+    }
+
+    /**
+     * Get the window table for a frame length, computing it the first time it is needed
+     */
+    public static double[] get(WindowFunction window, int length) {
+        long key = ((long) window.ordinal() << 32) | length;
+        return TABLES.computeIfAbsent(key, k -> {
+            double[] table = new double[length];
+            for (int i = 0; i < length; i++) {
+                table[i] = window.value(i, length);
+            }
+            return table;
+        });
+    }
+}
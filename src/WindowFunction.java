@@ -0,0 +1,70 @@
+/**
+ * Window functions applied to a frame before autocorrelation
+ * Values are symmetric over the frame (both ends use n - 1 as the span)
+ */
+public enum WindowFunction {
+
+    HANN("Hann") {
+        @Override
+        double value(int i, int length) {
+            return 0.5 * (1 - Math.cos(2 * Math.PI * i / (length - 1)));
+        }
+    },
+
+    HAMMING("Hamming") {
+        @Override
+        double value(int i, int length) {
+            return 0.54 - 0.46 * Math.cos(2 * Math.PI * i / (length - 1));
+        }
+    },
+
+    BLACKMAN_HARRIS("Blackman-Harris") {
+        @Override
+        double value(int i, int length) {
+            double x = 2 * Math.PI * i / (length - 1);
+            return 0.35875 - 0.48829 * Math.cos(x) + 0.14128 * Math.cos(2 * x) - 0.01168 * Math.cos(3 * x);
+        }
+    },
+
+    GAUSSIAN("Gaussian") {
+        private static final double SIGMA = 0.4; // Width relative to half the frame
+
+        @Override
+        double value(int i, int length) {
+            double half = (length - 1) / 2.0;
+            double x = (i - half) / (SIGMA * half);
+            return Math.exp(-0.5 * x * x);
+        }
+    };
+
+    private final String displayName;
+
+    WindowFunction(String displayName) {
+        this.displayName = displayName;
+    }
+
+    /**
+     * Window weight for sample i of a frame with the given length
+     */
+    abstract double value(int i, int length);
+
+    /**
+     * Look up a window by name (case and dashes ignored), falling back to Hann
+     */
+    public static WindowFunction fromName(String name) {
+        if (name != null) {
+            String key = name.replace("-", "_").replace(" ", "_");
+            for (WindowFunction window : values()) {
+                if (window.name().equalsIgnoreCase(key)) {
+                    return window;
+                }
+            }
+        }
+        return HANN;
+    }
+
+    @Override
+    public String toString() {
+        return displayName;
+    }
+}
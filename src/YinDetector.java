@@ -0,0 +1,67 @@
+/**
+ * YIN pitch detector (de Cheveigne and Kawahara)
+ * Uses the cumulative mean normalized difference, which avoids most octave errors
+ */
+public class YinDetector implements PitchDetector {
+
+    private static final double THRESHOLD = 0.15; // Absolute threshold on the normalized difference
+
+    private final double sampleRate;
+    private final int minPeriod;
+    private final int maxPeriod;
+
+    private final double[] difference;
+
+    /**
+     * Create a detector for the given frequency range
+     */
+    public YinDetector(double sampleRate, double minFrequency, double maxFrequency) {
+        this.sampleRate = sampleRate;
+        this.minPeriod = (int) (sampleRate / maxFrequency);
+        this.maxPeriod = (int) (sampleRate / minFrequency);
+        this.difference = new double[maxPeriod + 1];
+    }
+
+    @Override
+    public String getName() {
+        return "YIN";
+    }
+
+    @Override
+    public boolean detect(double[] samples, int length, PitchResult result) {
+        int lastPeriod = Math.min(maxPeriod, length / 2);
+        int window = length - lastPeriod;
+
+        // Difference function, normalized by its cumulative mean as we go
+        difference[0] = 1;
+        double runningSum = 0;
+        for (int tau = 1; tau <= lastPeriod; tau++) {
+            double sum = 0;
+            for (int i = 0; i < window; i++) {
+                double delta = samples[i] - samples[i + tau];
+                sum += delta * delta;
+            }
+            runningSum += sum;
+            difference[tau] = runningSum > 0 ? sum * tau / runningSum : 1;
+        }
+
+        // First dip under the threshold, then slide down to its local minimum
+        for (int tau = minPeriod; tau <= lastPeriod; tau++) {
+            if (difference[tau] < THRESHOLD) {
+                while (tau + 1 <= lastPeriod && difference[tau + 1] < difference[tau]) {
+                    tau++;
+                }
+
+                // Refine the dip to a fractional period
+                double offset = tau + 1 <= lastPeriod
+                        ? PeakInterpolation.parabolicOffset(difference[tau - 1], difference[tau], difference[tau + 1])
+                        : 0;
+                result.set(sampleRate / (tau + offset), Math.max(0, 1 - difference[tau]));
+                return true;
+            }
+        }
+
+        result.clear();
+        return false;
+    }
+}